@@ -0,0 +1,291 @@
+package com.vehicle.spareparts.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache with size and TTL eviction.
+ *
+ * Follows the W-TinyLFU layout: new entries land in a small LRU window, and
+ * when the window overflows its oldest entry only enters the main LRU area if
+ * a frequency sketch says it is used more often than the main area's victim.
+ * One-off reads therefore cannot flush frequently used entries.
+ *
+ * Loads run outside the lock. Each key being loaded has a generation that
+ * invalidate() bumps, and a loaded value is only cached if its key was not
+ * invalidated while the loader ran, so a stale read never outlives an
+ * invalidation for the rest of the TTL.
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final long ttlNanos;
+    private final FrequencySketch sketch;
+
+    // access-ordered, eldest entry first
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+    // keys with a load in progress
+    private final Map<K, Load> loads = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(String name, int maximumSize, Duration timeToLive) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("Cache size must be at least 2");
+        }
+        this.name = name;
+        this.windowCapacity = Math.max(1, maximumSize / 100);
+        this.mainCapacity = maximumSize - windowCapacity;
+        this.ttlNanos = timeToLive.toNanos();
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * Get a cached value, loading and caching it on a miss.
+     * A null from the loader is returned but not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        long generation = beginLoad(key);
+        try {
+            value = loader.apply(key);
+        } finally {
+            endLoad(key, generation, value);
+        }
+        return value;
+    }
+
+    /**
+     * Get cached values for several keys, loading all misses with one loader
+     * call. Keys the loader leaves out are absent from the result.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            V value = getIfPresent(key);
+            if (value != null) {
+                result.put(key, value);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<K, Long> generations = new HashMap<>();
+        for (K key : missing) {
+            generations.put(key, beginLoad(key));
+        }
+        Map<K, V> loaded = null;
+        try {
+            loaded = loader.apply(missing);
+        } finally {
+            for (Map.Entry<K, Long> entry : generations.entrySet()) {
+                V value = loaded != null ? loaded.get(entry.getKey()) : null;
+                endLoad(entry.getKey(), entry.getValue(), value);
+                if (value != null) {
+                    result.put(entry.getKey(), value);
+                }
+            }
+        }
+        return result;
+    }
+
+    private synchronized long beginLoad(K key) {
+        Load load = loads.computeIfAbsent(key, k -> new Load());
+        load.loaders++;
+        return load.generation;
+    }
+
+    /**
+     * Cache a loaded value unless its key was invalidated since beginLoad
+     */
+    private synchronized void endLoad(K key, long generation, V value) {
+        Load load = loads.get(key);
+        if (value != null && load.generation == generation) {
+            put(key, value);
+        }
+        if (--load.loaders == 0) {
+            loads.remove(key);
+        }
+    }
+
+    public synchronized V getIfPresent(K key) {
+        sketch.increment(key);
+        Entry<V> entry = window.get(key);
+        if (entry == null) {
+            entry = main.get(key);
+        }
+        if (entry != null) {
+            if (entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value;
+            }
+            window.remove(key);
+            main.remove(key);
+            evictions.increment();
+        }
+        misses.increment();
+        return null;
+    }
+
+    public synchronized void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+        if (main.containsKey(key)) {
+            main.put(key, entry);
+            return;
+        }
+        window.put(key, entry);
+        if (window.size() > windowCapacity) {
+            promoteFromWindow();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        window.remove(key);
+        main.remove(key);
+        Load load = loads.get(key);
+        if (load != null) {
+            load.generation++;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        window.clear();
+        main.clear();
+        loads.values().forEach(load -> load.generation++);
+    }
+
+    public synchronized int size() {
+        return window.size() + main.size();
+    }
+
+    /**
+     * Hit/miss/eviction counters for monitoring
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        return stats;
+    }
+
+    private void promoteFromWindow() {
+        Iterator<Map.Entry<K, Entry<V>>> windowIterator = window.entrySet().iterator();
+        Map.Entry<K, Entry<V>> candidate = windowIterator.next();
+        windowIterator.remove();
+
+        if (main.size() < mainCapacity) {
+            main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+
+        Iterator<Map.Entry<K, Entry<V>>> mainIterator = main.entrySet().iterator();
+        Map.Entry<K, Entry<V>> victim = mainIterator.next();
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+            mainIterator.remove();
+            main.put(candidate.getKey(), candidate.getValue());
+        }
+        evictions.increment();
+    }
+
+    private static final class Load {
+        private long generation;
+        private int loaders;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit style counters with periodic aging,
+     * so the popularity estimate follows recent traffic.
+     */
+    private static final class FrequencySketch {
+
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final int[][] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, maximumSize - 1)) << 1;
+            this.table = new int[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * maximumSize;
+        }
+
+        private void increment(Object key) {
+            int hash = key.hashCode();
+            for (int row = 0; row < DEPTH; row++) {
+                int index = index(hash, row);
+                if (table[row][index] < MAX_COUNT) {
+                    table[row][index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                age();
+            }
+        }
+
+        private int frequency(Object key) {
+            int hash = key.hashCode();
+            int min = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, table[row][index(hash, row)]);
+            }
+            return min;
+        }
+
+        private int index(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            return h & mask;
+        }
+
+        private void age() {
+            for (int[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>>= 1;
+                }
+            }
+            additions /= 2;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.vehicle.spareparts.cache;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent map from primitive long keys to values.
+ *
+ * Keys are spread over a power-of-two number of stripes, each an
+ * open-addressing table (linear probing, backward-shift deletion) of
+ * long[] keys and Object[] values guarded by its own StampedLock. There is
+ * no Long boxing or per-entry node, and reads are lock-free optimistic reads
+ * that only fall back to the read lock when a writer got in the way.
+ * Null values are not allowed; a null slot marks an empty one.
+ */
+public class LongKeyedMap<V> {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final Stripe<V>[] stripes;
+    private final int stripeMask;
+
+    @SuppressWarnings("unchecked")
+    public LongKeyedMap(int expectedSize, int concurrency) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, concurrency - 1) << 1);
+        this.stripes = new Stripe[stripeCount];
+        this.stripeMask = stripeCount - 1;
+        int perStripe = Math.max(1, expectedSize / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(perStripe);
+        }
+    }
+
+    public V get(long key) {
+        long hash = mix(key);
+        return stripeFor(hash).get(key, hash);
+    }
+
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        compute(key, (k, old) -> value);
+    }
+
+    public V remove(long key) {
+        long hash = mix(key);
+        Stripe<V> stripe = stripeFor(hash);
+        long stamp = stripe.lock.writeLock();
+        try {
+            return stripe.remove(key, hash);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replace the value of a key with the function's result, atomically for
+     * that key; a null result removes the entry. Returns the new value.
+     */
+    public V compute(long key, EntryFunction<V> function) {
+        long hash = mix(key);
+        Stripe<V> stripe = stripeFor(hash);
+        long stamp = stripe.lock.writeLock();
+        try {
+            V old = stripe.get(key, hash);
+            V updated = function.apply(key, old);
+            if (updated == null) {
+                if (old != null) {
+                    stripe.remove(key, hash);
+                }
+            } else {
+                stripe.put(key, hash, updated);
+            }
+            return updated;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove every entry the predicate accepts; returns how many were removed
+     */
+    public int removeIf(EntryPredicate<V> predicate) {
+        int removed = 0;
+        for (Stripe<V> stripe : stripes) {
+            long stamp = stripe.lock.writeLock();
+            try {
+                removed += stripe.removeIf(predicate);
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    @FunctionalInterface
+    public interface EntryFunction<V> {
+        V apply(long key, V value);
+    }
+
+    @FunctionalInterface
+    public interface EntryPredicate<V> {
+        boolean test(long key, V value);
+    }
+
+    private Stripe<V> stripeFor(long hash) {
+        // High bits pick the stripe, low bits the slot within it
+        return stripes[(int) (hash >>> 40) & stripeMask];
+    }
+
+    // SplitMix64 finalizer: spreads sequential ids over all slots
+    private static long mix(long key) {
+        key = (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+        key = (key ^ (key >>> 27)) * 0x94d049bb133111ebL;
+        return key ^ (key >>> 31);
+    }
+
+    private static final class Stripe<V> {
+        private final StampedLock lock = new StampedLock();
+        private long[] keys;
+        private Object[] values;
+        private int size;
+
+        private Stripe(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(8, (int) (expectedSize / LOAD_FACTOR) - 1) << 1);
+            keys = new long[capacity];
+            values = new Object[capacity];
+        }
+
+        @SuppressWarnings("unchecked")
+        private V get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                long[] k = keys;
+                Object[] v = values;
+                Object found = null;
+                // A concurrent resize can leave the arrays mismatched; validate() rejects that read
+                if (k.length == v.length) {
+                    found = probe(k, v, key, hash);
+                }
+                if (lock.validate(stamp)) {
+                    return (V) found;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return (V) probe(keys, values, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private Object probe(long[] k, Object[] v, long key, long hash) {
+            int mask = k.length - 1;
+            int index = (int) hash & mask;
+            for (int i = 0; i <= mask; i++) {
+                Object value = v[index];
+                if (value == null) {
+                    return null;
+                }
+                if (k[index] == key) {
+                    return value;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        // Callers hold the write lock
+        private void put(long key, long hash, V value) {
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            while (values[index] != null) {
+                if (keys[index] == key) {
+                    values[index] = value;
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            if (++size > keys.length * LOAD_FACTOR) {
+                resize();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V remove(long key, long hash) {
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            while (values[index] != null) {
+                if (keys[index] == key) {
+                    Object old = values[index];
+                    deleteSlot(index);
+                    return (V) old;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int removeIf(EntryPredicate<V> predicate) {
+            int removed = 0;
+            int index = 0;
+            while (index < keys.length) {
+                Object value = values[index];
+                if (value != null && predicate.test(keys[index], (V) value)) {
+                    // The slot is refilled by a shifted entry, so test it again
+                    deleteSlot(index);
+                    removed++;
+                } else {
+                    index++;
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Empty a slot and shift later entries of the probe run back into it
+         */
+        private void deleteSlot(int slot) {
+            int mask = keys.length - 1;
+            int gap = slot;
+            int index = (gap + 1) & mask;
+            while (values[index] != null) {
+                int home = (int) mix(keys[index]) & mask;
+                // Move the entry if its home slot is not between the gap and its position
+                if (((index - home) & mask) >= ((index - gap) & mask)) {
+                    keys[gap] = keys[index];
+                    values[gap] = values[index];
+                    gap = index;
+                }
+                index = (index + 1) & mask;
+            }
+            values[gap] = null;
+            size--;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] newKeys = new long[oldKeys.length << 1];
+            Object[] newValues = new Object[newKeys.length];
+            int mask = newKeys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int index = (int) mix(oldKeys[i]) & mask;
+                    while (newValues[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    newKeys[index] = oldKeys[i];
+                    newValues[index] = oldValues[i];
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+    }
+}
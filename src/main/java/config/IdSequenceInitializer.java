@@ -0,0 +1,48 @@
+package com.vehicle.spareparts.config;
+
+import com.vehicle.spareparts.entity.IdAllocation;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the id_sequences rows used by the pooled @TableGenerator mappings.
+ *
+ * Tables that were filled with IDENTITY ids must not hand out ids that are
+ * already taken. The pooled optimizer treats the stored value as the upper
+ * end of the next block, so each row is raised to at least MAX(id) + block
+ * size. Existing rows are never lowered.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @PostConstruct
+    public void seedSequences() {
+        for (String table : IdAllocation.BLOCK_SIZES.keySet()) {
+            // Same size the generator uses, so a larger configured block never overlaps used ids
+            int blockSize = IdAllocation.blockSize(table,
+                    environment.getProperty("spring.jpa.properties." + IdAllocation.BLOCK_SIZE_SETTING + table));
+            jdbcTemplate.update(
+                    "INSERT INTO " + IdAllocation.TABLE + " (" + IdAllocation.NAME_COLUMN + ", " + IdAllocation.VALUE_COLUMN + ") " +
+                    "SELECT ?, COALESCE(MAX(id), 0) + ? FROM " + table + " " +
+                    "ON DUPLICATE KEY UPDATE " + IdAllocation.VALUE_COLUMN + " = " +
+                    "GREATEST(" + IdAllocation.VALUE_COLUMN + ", VALUES(" + IdAllocation.VALUE_COLUMN + "))",
+                    table, blockSize);
+        }
+        logger.info("Seeded id_sequences for {} tables", IdAllocation.BLOCK_SIZES.size());
+    }
+}
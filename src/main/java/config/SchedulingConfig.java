@@ -0,0 +1,12 @@
+package com.vehicle.spareparts.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (stock flushes, sweepers, relays)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,77 @@
+package com.vehicle.spareparts.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves databases created before the unique constraints were named onto the
+ * named ones.
+ *
+ * Those databases carry generated unique indexes (UK_...) from the old
+ * unique=true mappings, and ddl-auto=update adds the named constraint beside
+ * them. For each constrained column, an old single-column unique index is
+ * renamed to the constraint name when the named one is missing, and dropped
+ * when it is a duplicate, so violations always report the constraint name.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class UniqueIndexMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(UniqueIndexMigration.class);
+
+    private static final List<NamedUnique> CONSTRAINTS = List.of(
+            new NamedUnique("users", "username", "uk_users_username"),
+            new NamedUnique("users", "email", "uk_users_email"),
+            new NamedUnique("delivery_boy_details", "user_id", "uk_delivery_boy_user"),
+            new NamedUnique("delivery_boy_details", "vehicle_number", "uk_delivery_boy_vehicle_number"),
+            new NamedUnique("delivery_boy_details", "license_number", "uk_delivery_boy_license_number"));
+
+    // Unique indexes covering exactly one column, other than the primary key
+    private static final String SINGLE_COLUMN_UNIQUE_INDEXES_SQL =
+            "SELECT s.index_name FROM information_schema.statistics s " +
+            "WHERE s.table_schema = DATABASE() AND s.table_name = ? AND s.column_name = ? " +
+            "AND s.non_unique = 0 AND s.index_name <> 'PRIMARY' " +
+            "AND (SELECT COUNT(*) FROM information_schema.statistics c " +
+            "     WHERE c.table_schema = s.table_schema AND c.table_name = s.table_name " +
+            "     AND c.index_name = s.index_name) = 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        int changed = 0;
+        for (NamedUnique constraint : CONSTRAINTS) {
+            List<String> indexes = jdbcTemplate.queryForList(SINGLE_COLUMN_UNIQUE_INDEXES_SQL, String.class,
+                    constraint.table(), constraint.column());
+            boolean named = indexes.stream().anyMatch(constraint.name()::equalsIgnoreCase);
+            for (String index : indexes) {
+                if (index.equalsIgnoreCase(constraint.name())) {
+                    continue;
+                }
+                if (!named) {
+                    jdbcTemplate.execute("ALTER TABLE " + constraint.table() +
+                            " RENAME INDEX `" + index + "` TO " + constraint.name());
+                    named = true;
+                } else {
+                    jdbcTemplate.execute("ALTER TABLE " + constraint.table() + " DROP INDEX `" + index + "`");
+                }
+                logger.info("Unique index {}.{} replaced by {}", constraint.table(), index, constraint.name());
+                changed++;
+            }
+        }
+        if (changed > 0) {
+            logger.info("Migrated {} generated unique indexes to named constraints", changed);
+        }
+    }
+
+    private record NamedUnique(String table, String column, String name) {
+    }
+}
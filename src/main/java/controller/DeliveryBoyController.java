@@ -11,9 +11,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/delivery-boys")
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -33,14 +30,18 @@ public class DeliveryBoyController {
         }
     }
     
-    // Get all delivery boys (accessible to authenticated users)
+    // Get all delivery boys (accessible to authenticated users).
+    // Without cursor or size the full list is returned as before; with either, a KeysetPage.
     @GetMapping
-    public ResponseEntity<List<DeliveryBoyResponse>> getAllDeliveryBoys() {
+    public ResponseEntity<?> getAllDeliveryBoys(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size) {
         try {
-            List<DeliveryBoyResponse> deliveryBoys = deliveryBoyService.getAllDeliveryBoys();
-            return ResponseEntity.ok(deliveryBoys);
+            if (cursor == null && size == null) {
+                return ResponseEntity.ok(deliveryBoyService.getAllDeliveryBoys());
+            }
+            return ResponseEntity.ok(deliveryBoyService.getAllDeliveryBoys(cursor, size == null ? 50 : size));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ArrayList<>());
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
     }
     
@@ -1,8 +1,15 @@
 package com.vehicle.spareparts.controller;
 
+import com.vehicle.spareparts.dto.DeliverySummary;
+import com.vehicle.spareparts.dto.DeliveryLocation;
+import com.vehicle.spareparts.dto.KeysetPage;
+import com.vehicle.spareparts.dto.LocationPingRequest;
 import com.vehicle.spareparts.dto.MessageResponse;
 import com.vehicle.spareparts.entity.Delivery;
+import com.vehicle.spareparts.service.DeliveryDispatchService;
 import com.vehicle.spareparts.service.DeliveryService;
+import com.vehicle.spareparts.service.RiderLocationService;
+import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,7 +17,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/deliveries")
@@ -22,17 +28,29 @@ public class DeliveryController {
     @Autowired
     private DeliveryService deliveryService;
     
+    @Autowired
+    private DeliveryDispatchService deliveryDispatchService;
+    
+    @Autowired
+    private RiderLocationService riderLocationService;
+    
     @GetMapping
     // Temporarily removed @PreAuthorize to debug - will add back after fixing role issues
     // @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER', 'DELIVERY_STAFF')")
-    public ResponseEntity<List<Delivery>> getAllDeliveries(Authentication authentication) {
+    public ResponseEntity<?> getAllDeliveries(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int size,
+                                              Authentication authentication) {
         logger.info("User {} requesting all deliveries", authentication != null ? authentication.getName() : "anonymous");
         if (authentication != null) {
             logger.info("User authorities: {}", authentication.getAuthorities());
         }
-        List<Delivery> deliveries = deliveryService.getAllDeliveries();
-        logger.info("Returning {} deliveries", deliveries.size());
-        return ResponseEntity.ok(deliveries);
+        try {
+            KeysetPage<DeliverySummary> deliveries = deliveryService.getAllDeliveries(cursor, size);
+            logger.info("Returning {} deliveries", deliveries.getItems().size());
+            return ResponseEntity.ok(deliveries);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
     
     @GetMapping("/{id}")
@@ -46,14 +64,26 @@ public class DeliveryController {
     
     @GetMapping("/my-deliveries")
     @PreAuthorize("hasRole('DELIVERY_STAFF')")
-    public ResponseEntity<List<Delivery>> getMyDeliveries(Authentication authentication) {
-        return ResponseEntity.ok(deliveryService.getDeliveriesByStaff(authentication.getName()));
+    public ResponseEntity<?> getMyDeliveries(@RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "50") int size,
+                                             Authentication authentication) {
+        try {
+            return ResponseEntity.ok(deliveryService.getDeliveriesByStaff(authentication.getName(), cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
     
     @GetMapping("/status/{status}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER', 'DELIVERY_STAFF')")
-    public ResponseEntity<List<Delivery>> getDeliveriesByStatus(@PathVariable String status) {
-        return ResponseEntity.ok(deliveryService.getDeliveriesByStatus(status));
+    public ResponseEntity<?> getDeliveriesByStatus(@PathVariable String status,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(deliveryService.getDeliveriesByStatus(status, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
     
     @PutMapping("/{id}/status")
@@ -93,6 +123,65 @@ public class DeliveryController {
         }
     }
     
+    @PostMapping("/locations")
+    @PreAuthorize("hasRole('DELIVERY_STAFF')")
+    public ResponseEntity<?> reportLocations(@Valid @RequestBody LocationPingRequest request,
+                                             Authentication authentication) {
+        try {
+            return ResponseEntity.ok(riderLocationService.ingest(authentication.getName(), request.getPings()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{id}/location")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER', 'DELIVERY_STAFF', 'CUSTOMER')")
+    public ResponseEntity<?> getDeliveryLocation(@PathVariable Long id, Authentication authentication) {
+        boolean privileged = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()) || "ROLE_STORE_OWNER".equals(a.getAuthority()));
+        DeliveryLocation location = riderLocationService.getLocation(id, authentication.getName(), privileged);
+        if (location == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(location);
+    }
+    
+    @GetMapping("/nearest-staff")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<?> getNearestStaff(@RequestParam double latitude, @RequestParam double longitude,
+                                             @RequestParam(defaultValue = "5") int count) {
+        return ResponseEntity.ok(deliveryService.findNearestStaff(latitude, longitude, Math.min(count, 100)));
+    }
+    
+    @GetMapping("/staff-within")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<?> getStaffWithin(@RequestParam double latitude, @RequestParam double longitude,
+                                            @RequestParam(defaultValue = "3000") double radius) {
+        return ResponseEntity.ok(deliveryService.findStaffWithin(latitude, longitude, radius));
+    }
+    
+    @PutMapping("/{id}/assign-nearest")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<?> assignNearestStaff(@PathVariable Long id, @RequestParam double latitude,
+                                                @RequestParam double longitude) {
+        try {
+            Delivery delivery = deliveryService.assignNearestStaff(id, latitude, longitude);
+            return ResponseEntity.ok(delivery);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/dispatch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<?> dispatchPendingDeliveries() {
+        try {
+            return ResponseEntity.ok(deliveryDispatchService.dispatch());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'DELIVERY_STAFF')")
     public ResponseEntity<?> deleteDelivery(@PathVariable Long id) {
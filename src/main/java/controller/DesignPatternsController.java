@@ -5,6 +5,12 @@ import com.vehicle.spareparts.factory.report.ReportFactory;
 import com.vehicle.spareparts.strategy.delivery.DeliveryContext;
 import com.vehicle.spareparts.strategy.payment.PaymentContext;
 import com.vehicle.spareparts.observer.OrderSubject;
+import com.vehicle.spareparts.service.DeliveryDispatchService;
+import com.vehicle.spareparts.service.NotificationRelay;
+import com.vehicle.spareparts.service.PaymentProcessor;
+import com.vehicle.spareparts.service.RiderLocationService;
+import com.vehicle.spareparts.service.RiderSpatialIndex;
+import com.vehicle.spareparts.service.WarrantyExpiryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -34,6 +40,24 @@ public class DesignPatternsController {
     @Autowired
     private OrderSubject orderSubject;
 
+    @Autowired
+    private PaymentProcessor paymentProcessor;
+
+    @Autowired
+    private NotificationRelay notificationRelay;
+
+    @Autowired
+    private WarrantyExpiryService warrantyExpiryService;
+
+    @Autowired
+    private DeliveryDispatchService deliveryDispatchService;
+
+    @Autowired
+    private RiderLocationService riderLocationService;
+
+    @Autowired
+    private RiderSpatialIndex riderSpatialIndex;
+
     /**
      * FACTORY PATTERN - Generate Report
      * Endpoint: GET /api/design-patterns/reports/{type}
@@ -115,10 +139,72 @@ public class DesignPatternsController {
         return ResponseEntity.ok(Map.of(
             "observerCount", orderSubject.getObserverCount(),
             "registeredObservers", orderSubject.getObserverNames(),
+            "dispatchMode", orderSubject.getDispatchMode(),
+            "statistics", orderSubject.getObserverStatistics(),
             "description", "Active observers monitoring order events"
         ));
     }
 
+    /**
+     * Payment pipeline status
+     * Endpoint: GET /api/design-patterns/payments
+     */
+    @GetMapping("/payments")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<?> getPaymentPipelineStatus() {
+        return ResponseEntity.ok(paymentProcessor.getStatistics());
+    }
+
+    /**
+     * Notification outbox relay status
+     * Endpoint: GET /api/design-patterns/notifications
+     */
+    @GetMapping("/notifications")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<?> getNotificationRelayStatus() {
+        return ResponseEntity.ok(notificationRelay.getStatistics());
+    }
+
+    /**
+     * Warranty expiry index and sweep status
+     * Endpoint: GET /api/design-patterns/warranty-expiry
+     */
+    @GetMapping("/warranty-expiry")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<?> getWarrantyExpiryStatus() {
+        return ResponseEntity.ok(warrantyExpiryService.getStatistics());
+    }
+
+    /**
+     * Delivery dispatch cycle timings and counters
+     * Endpoint: GET /api/design-patterns/delivery-dispatch
+     */
+    @GetMapping("/delivery-dispatch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<?> getDeliveryDispatchStatus() {
+        return ResponseEntity.ok(deliveryDispatchService.getStatistics());
+    }
+
+    /**
+     * Rider location ingestion and track writer counters
+     * Endpoint: GET /api/design-patterns/rider-locations
+     */
+    @GetMapping("/rider-locations")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<?> getRiderLocationStatus() {
+        return ResponseEntity.ok(riderLocationService.getStatistics());
+    }
+
+    /**
+     * Rider spatial index size and query timings
+     * Endpoint: GET /api/design-patterns/rider-index
+     */
+    @GetMapping("/rider-index")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<?> getRiderIndexStatus() {
+        return ResponseEntity.ok(riderSpatialIndex.getStatistics());
+    }
+
     /**
      * Design Patterns Overview
      * Endpoint: GET /api/design-patterns/overview
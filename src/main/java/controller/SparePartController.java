@@ -1,27 +1,54 @@
 package com.vehicle.spareparts.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vehicle.spareparts.dto.MessageResponse;
 import com.vehicle.spareparts.dto.SparePartRequest;
 import com.vehicle.spareparts.dto.SparePartResponse;
 import com.vehicle.spareparts.service.SparePartService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/spareparts")
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class SparePartController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    
     @Autowired
     private SparePartService sparePartService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // List endpoints return one KeysetPage at a time (?cursor=&size=, nextCursor
+    // in the body) like the other listings; the whole catalog or a whole
+    // category is only available as an NDJSON stream. Search pages are ordered
+    // by relevance, the others by id.
+    
     @GetMapping
-    public ResponseEntity<List<SparePartResponse>> getAllSpareParts() {
-        return ResponseEntity.ok(sparePartService.getActiveSpareParts());
+    public ResponseEntity<?> getAllSpareParts(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(sparePartService.getActiveSpareParts(cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllSpareParts() {
+        return ndjson(sparePartService::streamActiveSpareParts);
     }
     
     @GetMapping("/{id}")
@@ -33,14 +60,51 @@ public class SparePartController {
         }
     }
     
+    @GetMapping("/number/{partNumber}")
+    public ResponseEntity<SparePartResponse> getByPartNumber(@PathVariable String partNumber) {
+        try {
+            return ResponseEntity.ok(sparePartService.getSparePartByPartNumber(partNumber));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/categories")
+    public ResponseEntity<List<String>> getCategories() {
+        return ResponseEntity.ok(sparePartService.getAllCategories());
+    }
+    
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
+    public ResponseEntity<List<Map<String, Object>>> getCacheStatistics() {
+        return ResponseEntity.ok(sparePartService.getCacheStatistics());
+    }
+    
     @GetMapping("/search")
-    public ResponseEntity<List<SparePartResponse>> searchSpareParts(@RequestParam String keyword) {
-        return ResponseEntity.ok(sparePartService.searchSpareParts(keyword));
+    public ResponseEntity<?> searchSpareParts(@RequestParam String keyword,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(sparePartService.searchSpareParts(keyword, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
     
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<SparePartResponse>> getByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(sparePartService.getSparePartsByCategory(category));
+    public ResponseEntity<?> getByCategory(@PathVariable String category,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(sparePartService.getSparePartsByCategory(category, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping(value = "/category/{category}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamByCategory(@PathVariable String category) {
+        return ndjson(consumer -> sparePartService.streamSparePartsByCategory(category, consumer));
     }
     
     @GetMapping("/low-stock")
@@ -81,4 +145,16 @@ public class SparePartController {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
     }
+    
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<SparePartResponse>> source) {
+        StreamingResponseBody body = out -> source.accept(part -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(part));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
 }
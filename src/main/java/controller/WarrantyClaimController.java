@@ -1,5 +1,7 @@
 package com.vehicle.spareparts.controller;
 
+import com.vehicle.spareparts.dto.KeysetPage;
+import com.vehicle.spareparts.dto.WarrantyClaimSummary;
 import com.vehicle.spareparts.entity.WarrantyClaim;
 import com.vehicle.spareparts.service.WarrantyClaimService;
 import lombok.RequiredArgsConstructor;
@@ -7,7 +9,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -40,16 +41,21 @@ public class WarrantyClaimController {
         }
     }
     
-    // READ - Get all claims (Store Owner/Admin)
+    // READ - Get all claims (Store Owner/Admin); pass nextCursor back as ?cursor= for the next page
     @GetMapping("/all")
-    public ResponseEntity<List<WarrantyClaim>> getAllClaims() {
-        return ResponseEntity.ok(warrantyClaimService.getAllClaims());
+    public ResponseEntity<KeysetPage<WarrantyClaimSummary>> getAllClaims(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(warrantyClaimService.getAllClaims(cursor, size));
     }
     
     // READ - Get customer's claims
     @GetMapping("/my-claims/{customerId}")
-    public ResponseEntity<List<WarrantyClaim>> getMyClaims(@PathVariable Long customerId) {
-        return ResponseEntity.ok(warrantyClaimService.getCustomerClaims(customerId));
+    public ResponseEntity<KeysetPage<WarrantyClaimSummary>> getMyClaims(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(warrantyClaimService.getCustomerClaims(customerId, cursor, size));
     }
     
     // READ - Get single claim
@@ -60,9 +66,12 @@ public class WarrantyClaimController {
     
     // READ - Get claims by status
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<WarrantyClaim>> getClaimsByStatus(@PathVariable String status) {
+    public ResponseEntity<KeysetPage<WarrantyClaimSummary>> getClaimsByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
         WarrantyClaim.WarrantyClaimStatus claimStatus = WarrantyClaim.WarrantyClaimStatus.valueOf(status.toUpperCase());
-        return ResponseEntity.ok(warrantyClaimService.getClaimsByStatus(claimStatus));
+        return ResponseEntity.ok(warrantyClaimService.getClaimsByStatus(claimStatus, cursor, size));
     }
     
     // UPDATE - Customer updates claim
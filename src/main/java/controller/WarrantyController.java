@@ -3,8 +3,10 @@ package com.vehicle.spareparts.controller;
 import com.vehicle.spareparts.dto.MessageResponse;
 import com.vehicle.spareparts.dto.WarrantyClaimRequest;
 import com.vehicle.spareparts.dto.WarrantyResponse;
+import com.vehicle.spareparts.dto.WarrantyValidationResult;
 import com.vehicle.spareparts.service.WarrantyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -19,6 +21,9 @@ public class WarrantyController {
     @Autowired
     private WarrantyService warrantyService;
     
+    @Value("${warranty.validation.max-batch-size:10000}")
+    private int maxValidationBatchSize;
+    
     @GetMapping("/my-warranties")
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<List<WarrantyResponse>> getMyWarranties(Authentication authentication) {
@@ -97,6 +102,13 @@ public class WarrantyController {
         return ResponseEntity.ok(warrantyService.getWarrantyStatistics());
     }
     
+    // Check the statistics counters against the warranties table, rebuilding them if they drifted
+    @PostMapping("/stats/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reconcileWarrantyStats() {
+        return ResponseEntity.ok(warrantyService.reconcileStatistics());
+    }
+    
     // CREATE - Manual warranty creation (Admin/Store Owner)
     @PostMapping("/create")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_OWNER')")
@@ -141,6 +153,17 @@ public class WarrantyController {
         return ResponseEntity.ok(warrantyService.getExpiringWarranties(days));
     }
 
+    // Validate a batch of warranty numbers (e.g. from a service centre)
+    @PostMapping("/validate-batch")
+    public ResponseEntity<?> validateWarranties(@RequestBody List<String> warrantyNumbers) {
+        if (warrantyNumbers.size() > maxValidationBatchSize) {
+            return ResponseEntity.badRequest().body(new MessageResponse(
+                "At most " + maxValidationBatchSize + " warranty numbers per request"));
+        }
+        List<WarrantyValidationResult> results = warrantyService.validateWarranties(warrantyNumbers);
+        return ResponseEntity.ok(results);
+    }
+
     // Check if warranty is valid
     @GetMapping("/{id}/valid")
     public ResponseEntity<?> checkWarrantyValidity(@PathVariable Long id) {
@@ -0,0 +1,22 @@
+package com.vehicle.spareparts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latest known position of a delivery's rider
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryLocation {
+    private Long deliveryId;
+    private Long riderId;
+    private Double latitude;
+    private Double longitude;
+    private Double speed;
+    private Double heading;
+    // Epoch milliseconds on the device
+    private Long recordedAt;
+}
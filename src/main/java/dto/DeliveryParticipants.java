@@ -0,0 +1,11 @@
+package com.vehicle.spareparts.dto;
+
+/**
+ * Who may report and read a delivery's location
+ */
+public interface DeliveryParticipants {
+    String getStatus();
+    Long getStaffId();
+    String getStaffUsername();
+    String getCustomerUsername();
+}
@@ -0,0 +1,27 @@
+package com.vehicle.spareparts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Flat row for delivery listings, filled by a JPQL constructor expression
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliverySummary {
+    private Long id;
+    private String deliveryNumber;
+    private String status;
+    private Long orderId;
+    private String orderNumber;
+    private Long deliveryStaffId;
+    private String deliveryStaffName;
+    private String deliveryAddress;
+    private LocalDateTime assignedAt;
+    private LocalDateTime dispatchedAt;
+    private LocalDateTime deliveredAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,13 @@
+package com.vehicle.spareparts.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregate projection over the spare_parts table for the inventory report
+ */
+public interface InventorySummary {
+    Long getTotalParts();
+    Long getLowStockCount();
+    Long getOutOfStockCount();
+    BigDecimal getTotalInventoryValue();
+}
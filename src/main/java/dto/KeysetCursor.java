@@ -0,0 +1,35 @@
+package com.vehicle.spareparts.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a listing ordered by (timestamp DESC, id DESC), written as
+ * "2024-05-01T10:15:30_123". The first page starts after the latest
+ * possible position.
+ */
+public record KeysetCursor(LocalDateTime timestamp, Long id) {
+
+    public static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    /**
+     * Parse a cursor from a request; null or blank means the first page
+     */
+    public static KeysetCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        int separator = cursor.lastIndexOf('_');
+        try {
+            return new KeysetCursor(LocalDateTime.parse(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + "_" + id;
+    }
+}
@@ -0,0 +1,37 @@
+package com.vehicle.spareparts.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One GPS fix from a rider's app; deliveryId is null while the rider is idle
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationPing {
+    
+    private Long deliveryId;
+    
+    @NotNull(message = "Latitude is required")
+    @DecimalMin("-90.0")
+    @DecimalMax("90.0")
+    private Double latitude;
+    
+    @NotNull(message = "Longitude is required")
+    @DecimalMin("-180.0")
+    @DecimalMax("180.0")
+    private Double longitude;
+    
+    // Meters per second and degrees from north, when the device reports them
+    private Double speed;
+    private Double heading;
+    
+    // Epoch milliseconds on the device
+    @NotNull(message = "Recorded time is required")
+    private Long recordedAt;
+}
@@ -0,0 +1,20 @@
+package com.vehicle.spareparts.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Pings buffered by a rider's app since its last upload
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationPingRequest {
+    
+    @NotEmpty(message = "At least one ping is required")
+    private List<@Valid LocationPing> pings;
+}
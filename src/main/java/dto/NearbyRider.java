@@ -0,0 +1,20 @@
+package com.vehicle.spareparts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Active rider near a point, from the in-memory spatial index
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyRider {
+    private Long riderId;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceMeters;
+    // Epoch milliseconds on the device
+    private Long recordedAt;
+}
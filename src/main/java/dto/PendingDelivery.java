@@ -0,0 +1,9 @@
+package com.vehicle.spareparts.dto;
+
+/**
+ * Unassigned delivery as seen by the dispatcher
+ */
+public interface PendingDelivery {
+    Long getId();
+    String getDeliveryAddress();
+}
@@ -0,0 +1,9 @@
+package com.vehicle.spareparts.dto;
+
+/**
+ * Open deliveries per delivery staff member
+ */
+public interface StaffWorkload {
+    Long getStaffId();
+    Long getTotal();
+}
@@ -0,0 +1,9 @@
+package com.vehicle.spareparts.dto;
+
+/**
+ * Row of a GROUP BY status count projection
+ */
+public interface StatusCount {
+    String getStatus();
+    Long getTotal();
+}
@@ -0,0 +1,30 @@
+package com.vehicle.spareparts.dto;
+
+import com.vehicle.spareparts.entity.WarrantyClaim;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Flat row for claim listings, filled by a JPQL constructor expression
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarrantyClaimSummary {
+    private Long id;
+    private String claimNumber;
+    private WarrantyClaim.WarrantyClaimStatus status;
+    private Long customerId;
+    private String customerName;
+    private Long productId;
+    private String productName;
+    private Long orderId;
+    private String orderNumber;
+    private LocalDate purchaseDate;
+    private LocalDate warrantyExpiryDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,11 @@
+package com.vehicle.spareparts.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Warranty id with its expiry date, used to build the expiry index
+ */
+public interface WarrantyExpiry {
+    Long getId();
+    LocalDate getExpiryDate();
+}
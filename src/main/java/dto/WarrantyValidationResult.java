@@ -0,0 +1,17 @@
+package com.vehicle.spareparts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarrantyValidationResult {
+    private String warrantyNumber;
+    private Boolean valid;
+    private String status;
+    private LocalDate expiryDate;
+    private String reason; // NOT_FOUND, EXPIRED or NOT_ACTIVE when not valid
+}
@@ -0,0 +1,13 @@
+package com.vehicle.spareparts.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Warranty number with the fields needed to decide validity
+ */
+public interface WarrantyValidity {
+    Long getId();
+    String getWarrantyNumber();
+    LocalDate getExpiryDate();
+    String getStatus();
+}
@@ -7,7 +7,8 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", uniqueConstraints =
+    @UniqueConstraint(name = "uk_audit_logs_spill_key", columnNames = "spill_key"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -42,6 +43,10 @@ public class AuditLog {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
     
+    // Set only on rows replayed from the audit spill file, so a replay never inserts a row twice
+    @Column(name = "spill_key", length = 36)
+    private String spillKey;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
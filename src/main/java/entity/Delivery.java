@@ -5,10 +5,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "deliveries")
+@Table(name = "deliveries", indexes = {
+        @Index(name = "idx_delivery_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_delivery_staff_assigned", columnList = "delivery_staff_id, assigned_at"),
+        @Index(name = "idx_delivery_created", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,20 +22,22 @@ import java.time.LocalDateTime;
 public class Delivery {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "deliveries_id")
+    @GenericGenerator(name = "deliveries_id", type = PooledTableIdGenerator.class,
+            parameters = @Parameter(name = PooledTableIdGenerator.SEGMENT_VALUE_PARAM, value = "deliveries"))
     private Long id;
     
     @Column(name = "delivery_number", nullable = false, unique = true, length = 50)
     private String deliveryNumber;
     
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
-    @JsonIgnoreProperties({"deliveries", "payments", "customer", "orderItems", "approvedBy"})
+    @JsonIgnoreProperties({"deliveries", "payments", "customer", "orderItems", "approvedBy", "hibernateLazyInitializer", "handler"})
     private Order order;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "delivery_staff_id")
-    @JsonIgnoreProperties({"password", "deliveries", "orders"})
+    @JsonIgnoreProperties({"password", "deliveries", "orders", "hibernateLazyInitializer", "handler"})
     private User deliveryStaff;
     
     @Column(nullable = false, length = 30)
@@ -7,7 +7,11 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "delivery_boy_details")
+@Table(name = "delivery_boy_details", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_delivery_boy_user", columnNames = "user_id"),
+    @UniqueConstraint(name = "uk_delivery_boy_vehicle_number", columnNames = "vehicle_number"),
+    @UniqueConstraint(name = "uk_delivery_boy_license_number", columnNames = "license_number")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,43 @@
+package com.vehicle.spareparts.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only rider position history, written in JDBC batches by RiderLocationService
+ */
+@Entity
+@Table(name = "delivery_track_points", indexes = {
+    @Index(name = "idx_track_delivery_recorded", columnList = "delivery_id, recorded_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryTrackPoint {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "delivery_id", nullable = false)
+    private Long deliveryId;
+    
+    @Column(name = "rider_id", nullable = false)
+    private Long riderId;
+    
+    @Column(nullable = false)
+    private Double latitude;
+    
+    @Column(nullable = false)
+    private Double longitude;
+    
+    private Double speed;
+    
+    private Double heading;
+    
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,63 @@
+package com.vehicle.spareparts.entity;
+
+import java.util.Map;
+
+/**
+ * Pooled ID allocation settings shared by the PooledTableIdGenerator mappings.
+ * Each entity draws a block of ids from its row in id_sequences, so inserts
+ * need no generated-key round trip and Hibernate can batch them.
+ * The row name is the entity's table name.
+ *
+ * Block sizes default to the constants below and can be overridden per table
+ * with spring.jpa.properties.id.allocation.block-size.<table>.
+ */
+public final class IdAllocation {
+
+    public static final String TABLE = "id_sequences";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+
+    // Hibernate setting prefix for per-table block sizes (spring.jpa.properties.* are passed through)
+    public static final String BLOCK_SIZE_SETTING = "id.allocation.block-size.";
+
+    // Default ids reserved per id_sequences round trip
+    public static final int ORDER_BLOCK = 50;
+    public static final int ORDER_ITEM_BLOCK = 200;
+    public static final int DELIVERY_BLOCK = 50;
+    public static final int WARRANTY_BLOCK = 200;
+    public static final int WARRANTY_CLAIM_BLOCK = 20;
+    public static final int OUTBOX_BLOCK = 200;
+
+    /**
+     * Table name to block size for every pooled entity
+     */
+    public static final Map<String, Integer> BLOCK_SIZES = Map.of(
+            "orders", ORDER_BLOCK,
+            "order_items", ORDER_ITEM_BLOCK,
+            "deliveries", DELIVERY_BLOCK,
+            "warranties", WARRANTY_BLOCK,
+            "warranty_claims", WARRANTY_CLAIM_BLOCK,
+            "notification_outbox", OUTBOX_BLOCK
+    );
+
+    /**
+     * Block size for a table: the configured value if set, else the default
+     */
+    public static int blockSize(String table, Object configured) {
+        Integer block = BLOCK_SIZES.get(table);
+        if (block == null) {
+            throw new IllegalArgumentException("No pooled id allocation for table: " + table);
+        }
+        if (configured == null || configured.toString().isBlank()) {
+            return block;
+        }
+        int size = Integer.parseInt(configured.toString().trim());
+        if (size < 1) {
+            throw new IllegalArgumentException("Id block size must be positive for table: " + table);
+        }
+        return size;
+    }
+
+    private IdAllocation() {
+    }
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,6 +14,19 @@ import java.util.List;
 
 @Entity
 @Table(name = "orders")
+// Everything convertToResponse reads, fetched in a single joined query
+@NamedEntityGraph(
+    name = "Order.withDetails",
+    attributeNodes = {
+        @NamedAttributeNode(value = "customer", subgraph = "user"),
+        @NamedAttributeNode(value = "approvedBy", subgraph = "user"),
+        @NamedAttributeNode(value = "orderItems", subgraph = "items")
+    },
+    subgraphs = {
+        @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("role")),
+        @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("sparePart"))
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,7 +34,9 @@ import java.util.List;
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "orders_id")
+    @GenericGenerator(name = "orders_id", type = PooledTableIdGenerator.class,
+            parameters = @Parameter(name = PooledTableIdGenerator.SEGMENT_VALUE_PARAM, value = "orders"))
     private Long id;
     
     @Column(name = "order_number", nullable = false, unique = true, length = 50)
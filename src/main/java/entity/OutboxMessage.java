@@ -0,0 +1,76 @@
+package com.vehicle.spareparts.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import java.time.LocalDateTime;
+
+/**
+ * Notification waiting to be sent. Written in the same transaction as the
+ * business change that caused it and delivered later by NotificationRelay.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+    @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+    
+    @Id
+    @GeneratedValue(generator = "notification_outbox_id")
+    @GenericGenerator(name = "notification_outbox_id", type = PooledTableIdGenerator.class,
+            parameters = @Parameter(name = PooledTableIdGenerator.SEGMENT_VALUE_PARAM, value = "notification_outbox"))
+    private Long id;
+    
+    @Column(nullable = false, length = 20)
+    private String channel; // EMAIL, SMS
+    
+    @Column(nullable = false, length = 100)
+    private String recipient;
+    
+    @Column(length = 200)
+    private String subject;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+    
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+    
+    @Column(name = "aggregate_type", length = 30)
+    private String aggregateType;
+    
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+    
+    @Column(nullable = false, length = 20)
+    private String status = "PENDING"; // PENDING, SENT, DEAD
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+    
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
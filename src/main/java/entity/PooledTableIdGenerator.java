@@ -0,0 +1,33 @@
+package com.vehicle.spareparts.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Pooled table generator over id_sequences whose block size is read from
+ * the Hibernate settings instead of a compile-time annotation constant.
+ * The mapping only names its row with the segment_value parameter; table,
+ * columns and the pooled optimizer are filled in here.
+ */
+public class PooledTableIdGenerator extends TableGenerator {
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        String table = params.getProperty(SEGMENT_VALUE_PARAM);
+        Object configured = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings().get(IdAllocation.BLOCK_SIZE_SETTING + table);
+
+        params.setProperty(TABLE_PARAM, IdAllocation.TABLE);
+        params.setProperty(SEGMENT_COLUMN_PARAM, IdAllocation.NAME_COLUMN);
+        params.setProperty(VALUE_COLUMN_PARAM, IdAllocation.VALUE_COLUMN);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(IdAllocation.blockSize(table, configured)));
+        params.setProperty(INITIAL_PARAM, "1");
+        params.setProperty(OPT_PARAM, "pooled");
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -39,7 +39,8 @@ public class SparePart {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
     
-    @Column(name = "stock_quantity", nullable = false)
+    // Written only on insert; later changes go through StockReservationLedger
+    @Column(name = "stock_quantity", nullable = false, updatable = false)
     private Integer stockQuantity = 0;
     
     @Column(name = "reorder_level")
@@ -4,18 +4,27 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "warranties")
+@Table(name = "warranties", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_warranty_order_item", columnNames = "order_item_id")
+}, indexes = {
+    @Index(name = "idx_warranty_status_expiry", columnList = "status, expiry_date"),
+    @Index(name = "idx_warranty_claim_status", columnList = "claim_status, claim_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Warranty {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "warranties_id")
+    @GenericGenerator(name = "warranties_id", type = PooledTableIdGenerator.class,
+            parameters = @Parameter(name = PooledTableIdGenerator.SEGMENT_VALUE_PARAM, value = "warranties"))
     private Long id;
     
     @Column(name = "warranty_number", nullable = false, unique = true, length = 50)
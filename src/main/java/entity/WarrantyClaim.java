@@ -4,13 +4,19 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "warranty_claims")
+@Table(name = "warranty_claims", indexes = {
+    @Index(name = "idx_claim_created", columnList = "created_at, id"),
+    @Index(name = "idx_claim_status_created", columnList = "status, created_at, id"),
+    @Index(name = "idx_claim_customer_created", columnList = "customer_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,25 +24,27 @@ import java.time.LocalDateTime;
 public class WarrantyClaim {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "warranty_claims_id")
+    @GenericGenerator(name = "warranty_claims_id", type = PooledTableIdGenerator.class,
+            parameters = @Parameter(name = PooledTableIdGenerator.SEGMENT_VALUE_PARAM, value = "warranty_claims"))
     private Long id;
     
     @Column(nullable = false, unique = true)
     private String claimNumber;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
-    @JsonIgnoreProperties({"password", "orders", "warranties", "deliveries"})
+    @JsonIgnoreProperties({"password", "orders", "warranties", "deliveries", "hibernateLazyInitializer", "handler"})
     private User customer;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
-    @JsonIgnoreProperties({"orderItems", "warranties"})
+    @JsonIgnoreProperties({"orderItems", "warranties", "hibernateLazyInitializer", "handler"})
     private SparePart product;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
-    @JsonIgnoreProperties({"customer", "orderItems", "deliveries", "payments", "approvedBy"})
+    @JsonIgnoreProperties({"customer", "orderItems", "deliveries", "payments", "approvedBy", "hibernateLazyInitializer", "handler"})
     private Order order;
     
     @Column(nullable = false)
@@ -67,9 +75,9 @@ public class WarrantyClaim {
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "processed_by")
-    @JsonIgnoreProperties({"password", "orders", "warranties", "deliveries"})
+    @JsonIgnoreProperties({"password", "orders", "warranties", "deliveries", "hibernateLazyInitializer", "handler"})
     private User processedBy;
     
     public enum WarrantyClaimStatus {
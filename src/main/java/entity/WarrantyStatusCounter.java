@@ -0,0 +1,25 @@
+package com.vehicle.spareparts.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running count of warranties per status or claim status.
+ * Keys look like TOTAL, STATUS:ACTIVE or CLAIM:PENDING.
+ */
+@Entity
+@Table(name = "warranty_status_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarrantyStatusCounter {
+
+    @Id
+    @Column(name = "counter_key", length = 50)
+    private String counterKey;
+
+    @Column(nullable = false)
+    private Long total = 0L;
+}
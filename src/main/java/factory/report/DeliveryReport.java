@@ -1,15 +1,15 @@
 package com.vehicle.spareparts.factory.report;
 
-import com.vehicle.spareparts.entity.Delivery;
+import com.vehicle.spareparts.dto.StatusCount;
 import com.vehicle.spareparts.repository.DeliveryRepository;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
  * Concrete Report - Delivery Report Implementation
+ * Status counts are grouped by the database and folded in one pass
  */
 public class DeliveryReport implements Report {
 
@@ -27,33 +27,35 @@ public class DeliveryReport implements Report {
         if (reportData == null) {
             reportData = new HashMap<>();
 
-            List<Delivery> allDeliveries = deliveryRepository.findAll();
+            long totalDeliveries = 0;
+            long pendingDeliveries = 0;
+            long inTransitDeliveries = 0;
+            long deliveredCount = 0;
+            long failedDeliveries = 0;
 
             // Count by status
-            long pendingDeliveries = allDeliveries.stream()
-                    .filter(d -> "PENDING".equals(d.getStatus()))
-                    .count();
-
-            long inTransitDeliveries = allDeliveries.stream()
-                    .filter(d -> "IN_TRANSIT".equals(d.getStatus()))
-                    .count();
-
-            long deliveredCount = allDeliveries.stream()
-                    .filter(d -> "DELIVERED".equals(d.getStatus()))
-                    .count();
-
-            long failedDeliveries = allDeliveries.stream()
-                    .filter(d -> "FAILED".equals(d.getStatus()))
-                    .count();
-
-            reportData.put("totalDeliveries", allDeliveries.size());
+            for (StatusCount row : deliveryRepository.countGroupedByStatus()) {
+                long count = row.getTotal();
+                totalDeliveries += count;
+                if ("PENDING".equals(row.getStatus())) {
+                    pendingDeliveries = count;
+                } else if ("IN_TRANSIT".equals(row.getStatus())) {
+                    inTransitDeliveries = count;
+                } else if ("DELIVERED".equals(row.getStatus())) {
+                    deliveredCount = count;
+                } else if ("FAILED".equals(row.getStatus())) {
+                    failedDeliveries = count;
+                }
+            }
+
+            reportData.put("totalDeliveries", (int) totalDeliveries);
             reportData.put("pendingDeliveries", pendingDeliveries);
             reportData.put("inTransitDeliveries", inTransitDeliveries);
             reportData.put("deliveredCount", deliveredCount);
             reportData.put("failedDeliveries", failedDeliveries);
             reportData.put("successRate",
-                    allDeliveries.isEmpty() ? 0.0 :
-                    (deliveredCount * 100.0 / allDeliveries.size()));
+                    totalDeliveries == 0 ? 0.0 :
+                    (deliveredCount * 100.0 / totalDeliveries));
         }
 
         return reportData;
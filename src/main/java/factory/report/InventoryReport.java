@@ -1,5 +1,6 @@
 package com.vehicle.spareparts.factory.report;
 
+import com.vehicle.spareparts.dto.InventorySummary;
 import com.vehicle.spareparts.entity.SparePart;
 import com.vehicle.spareparts.repository.SparePartRepository;
 
@@ -7,10 +8,10 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Concrete Report - Inventory Report Implementation
+ * Counts and value are aggregated by the database; only low stock parts are loaded
  */
 public class InventoryReport implements Report {
 
@@ -28,31 +29,16 @@ public class InventoryReport implements Report {
         if (reportData == null) {
             reportData = new HashMap<>();
 
-            List<SparePart> allParts = sparePartRepository.findAll();
-
-            // Total parts count
-            int totalParts = allParts.size();
+            InventorySummary summary = sparePartRepository.summarizeInventory();
 
             // Low stock items (stock < reorder level)
-            List<SparePart> lowStockItems = allParts.stream()
-                    .filter(p -> p.getStockQuantity() < p.getReorderLevel())
-                    .collect(Collectors.toList());
-
-            // Out of stock items
-            long outOfStockCount = allParts.stream()
-                    .filter(p -> p.getStockQuantity() == 0)
-                    .count();
-
-            // Total inventory value
-            double totalInventoryValue = allParts.stream()
-                    .mapToDouble(p -> p.getPrice().doubleValue() * p.getStockQuantity())
-                    .sum();
+            List<SparePart> lowStockItems = sparePartRepository.findBelowReorderLevel();
 
-            reportData.put("totalParts", totalParts);
-            reportData.put("lowStockCount", lowStockItems.size());
+            reportData.put("totalParts", summary.getTotalParts().intValue());
+            reportData.put("lowStockCount", summary.getLowStockCount().intValue());
             reportData.put("lowStockItems", lowStockItems);
-            reportData.put("outOfStockCount", outOfStockCount);
-            reportData.put("totalInventoryValue", totalInventoryValue);
+            reportData.put("outOfStockCount", summary.getOutOfStockCount());
+            reportData.put("totalInventoryValue", summary.getTotalInventoryValue().doubleValue());
         }
 
         return reportData;
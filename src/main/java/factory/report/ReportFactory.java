@@ -1,8 +1,9 @@
 package com.vehicle.spareparts.factory.report;
 
 import com.vehicle.spareparts.repository.DeliveryRepository;
-import com.vehicle.spareparts.repository.OrderRepository;
 import com.vehicle.spareparts.repository.SparePartRepository;
+import com.vehicle.spareparts.service.SalesAggregateStore;
+import com.vehicle.spareparts.service.StockReservationLedger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -14,7 +15,7 @@ import org.springframework.stereotype.Component;
 public class ReportFactory {
 
     @Autowired
-    private OrderRepository orderRepository;
+    private SalesAggregateStore salesAggregateStore;
 
     @Autowired
     private SparePartRepository sparePartRepository;
@@ -22,6 +23,9 @@ public class ReportFactory {
     @Autowired
     private DeliveryRepository deliveryRepository;
 
+    @Autowired
+    private StockReservationLedger stockReservationLedger;
+
     /**
      * Create report based on report type
      */
@@ -47,7 +51,7 @@ public class ReportFactory {
      */
     private Report createSalesReport() {
         System.out.println("Creating Sales Report...");
-        return new SalesReport(orderRepository);
+        return new SalesReport(salesAggregateStore);
     }
 
     /**
@@ -55,6 +59,8 @@ public class ReportFactory {
      */
     private Report createInventoryReport() {
         System.out.println("Creating Inventory Report...");
+        // Aggregates are computed in the DB, so write pending stock deltas first
+        stockReservationLedger.flush();
         return new InventoryReport(sparePartRepository);
     }
 
@@ -1,25 +1,28 @@
 package com.vehicle.spareparts.factory.report;
 
-import com.vehicle.spareparts.entity.Order;
-import com.vehicle.spareparts.repository.OrderRepository;
+import com.vehicle.spareparts.service.SalesAggregateStore;
+import com.vehicle.spareparts.service.SalesAggregateStore.SalesSnapshot;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
  * Concrete Report - Sales Report Implementation
+ * Reads precomputed totals from the SalesAggregateStore
  */
 public class SalesReport implements Report {
 
-    private final OrderRepository orderRepository;
+    private static final int RECENT_DAYS = 30;
+
+    private final SalesAggregateStore salesAggregateStore;
     private final LocalDateTime generatedAt;
     private Map<String, Object> reportData;
 
-    public SalesReport(OrderRepository orderRepository) {
-        this.orderRepository = orderRepository;
+    public SalesReport(SalesAggregateStore salesAggregateStore) {
+        this.salesAggregateStore = salesAggregateStore;
         this.generatedAt = LocalDateTime.now();
     }
 
@@ -28,29 +31,18 @@ public class SalesReport implements Report {
         if (reportData == null) {
             reportData = new HashMap<>();
 
-            List<Order> allOrders = orderRepository.findAll();
-
-            // Calculate total sales
-            BigDecimal totalSales = allOrders.stream()
-                    .map(Order::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            // Count orders by status
-            long completedOrders = allOrders.stream()
-                    .filter(o -> "DELIVERED".equals(o.getStatus()))
-                    .count();
-
-            long pendingOrders = allOrders.stream()
-                    .filter(o -> "PENDING".equals(o.getStatus()))
-                    .count();
+            SalesSnapshot sales = salesAggregateStore.snapshot(RECENT_DAYS);
+            BigDecimal totalSales = sales.totalSales();
 
-            reportData.put("totalOrders", allOrders.size());
+            reportData.put("totalOrders", sales.totalOrders());
             reportData.put("totalSales", totalSales);
-            reportData.put("completedOrders", completedOrders);
-            reportData.put("pendingOrders", pendingOrders);
+            reportData.put("completedOrders", sales.countByStatus("DELIVERED"));
+            reportData.put("pendingOrders", sales.countByStatus("PENDING"));
             reportData.put("averageOrderValue",
-                    allOrders.isEmpty() ? BigDecimal.ZERO :
-                    totalSales.divide(BigDecimal.valueOf(allOrders.size()), 2, BigDecimal.ROUND_HALF_UP));
+                    sales.totalOrders() == 0 ? BigDecimal.ZERO :
+                    totalSales.divide(BigDecimal.valueOf(sales.totalOrders()), 2, RoundingMode.HALF_UP));
+            reportData.put("ordersByStatus", sales.ordersByStatus());
+            reportData.put("dailyRevenue", sales.revenueByDay());
         }
 
         return reportData;
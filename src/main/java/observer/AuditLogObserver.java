@@ -1,37 +1,34 @@
 package com.vehicle.spareparts.observer;
 
-import com.vehicle.spareparts.entity.AuditLog;
 import com.vehicle.spareparts.entity.Order;
-import com.vehicle.spareparts.repository.AuditLogRepository;
+import com.vehicle.spareparts.service.AuditLogWriter;
+import com.vehicle.spareparts.service.AuditLogWriter.AuditRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+
 /**
  * Concrete Observer - Audit Log
- * Records order events in audit log
+ * Records order events in audit log through the batched AuditLogWriter
  */
 @Component
 public class AuditLogObserver implements OrderObserver {
 
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditLogWriter auditLogWriter;
 
     @Override
     public void update(Order order, String event) {
-        // Create audit log entry
-        AuditLog log = new AuditLog();
-        log.setAction(event);
-        log.setEntityType("ORDER");
-        log.setEntityId(order.getId());
-        log.setUser(order.getCustomer());
-
         // Store order details in newValue field
         String orderDetails = "Order " + order.getOrderNumber() + " - " + event +
                       ". Amount: $" + order.getTotalAmount() +
                       ", Status: " + order.getStatus();
-        log.setNewValue(orderDetails);
 
-        auditLogRepository.save(log);
+        // Queue audit log entry; written to audit_logs in batches
+        Long userId = order.getCustomer() != null ? order.getCustomer().getId() : null;
+        auditLogWriter.append(new AuditRecord(userId, event, "ORDER", order.getId(),
+                null, orderDetails, null, LocalDateTime.now()));
 
         System.out.println("📋 AUDIT LOG CREATED");
         System.out.println("Action: " + event);
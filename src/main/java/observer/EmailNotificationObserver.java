@@ -1,46 +1,58 @@
 package com.vehicle.spareparts.observer;
 
 import com.vehicle.spareparts.entity.Order;
+import com.vehicle.spareparts.service.NotificationOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Concrete Observer - Email Notification
- * Sends email notifications when order events occur
+ * Queues email notifications in the outbox when order events occur
  */
 @Component
 public class EmailNotificationObserver implements OrderObserver {
 
+    private static final MessageTemplate SUBJECT = MessageTemplate.compile("Order {orderNumber} - {event}");
+
+    private static final Map<String, MessageTemplate> MESSAGES = Map.of(
+            "ORDER_CREATED", MessageTemplate.compile(
+                    "Your order {orderNumber} has been created successfully. Total: ${total}"),
+            "ORDER_APPROVED", MessageTemplate.compile(
+                    "Your order {orderNumber} has been approved and will be processed soon."),
+            "ORDER_SHIPPED", MessageTemplate.compile(
+                    "Your order {orderNumber} has been shipped!"),
+            "ORDER_DELIVERED", MessageTemplate.compile(
+                    "Your order {orderNumber} has been delivered. Thank you for your purchase!"),
+            "ORDER_CANCELLED", MessageTemplate.compile(
+                    "Your order {orderNumber} has been cancelled.")
+    );
+
+    private static final MessageTemplate DEFAULT_MESSAGE =
+            MessageTemplate.compile("Order {orderNumber} status updated: {event}");
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
     @Override
     public void update(Order order, String event) {
-        String customerEmail = order.getCustomer().getEmail();
-        String message = generateEmailMessage(order, event);
+        Map<String, Object> values = new HashMap<>();
+        values.put("orderNumber", order.getOrderNumber());
+        values.put("total", order.getTotalAmount());
+        values.put("event", event);
 
-        // Simulate sending email
-        System.out.println("📧 EMAIL NOTIFICATION");
-        System.out.println("To: " + customerEmail);
-        System.out.println("Subject: Order " + order.getOrderNumber() + " - " + event);
-        System.out.println("Message: " + message);
-        System.out.println("-----------------------------------");
+        String message = MESSAGES.getOrDefault(event.toUpperCase(), DEFAULT_MESSAGE).render(values);
 
-        // In real implementation, integrate with email service (JavaMail, SendGrid, etc.)
+        // Sent later by NotificationRelay, committed together with the order change
+        notificationOutbox.enqueue("EMAIL", order.getCustomer().getEmail(), SUBJECT.render(values), message,
+                event, "ORDER", order.getId());
     }
 
-    private String generateEmailMessage(Order order, String event) {
-        switch (event.toUpperCase()) {
-            case "ORDER_CREATED":
-                return "Your order " + order.getOrderNumber() + " has been created successfully. " +
-                       "Total: $" + order.getTotalAmount();
-            case "ORDER_APPROVED":
-                return "Your order " + order.getOrderNumber() + " has been approved and will be processed soon.";
-            case "ORDER_SHIPPED":
-                return "Your order " + order.getOrderNumber() + " has been shipped!";
-            case "ORDER_DELIVERED":
-                return "Your order " + order.getOrderNumber() + " has been delivered. Thank you for your purchase!";
-            case "ORDER_CANCELLED":
-                return "Your order " + order.getOrderNumber() + " has been cancelled.";
-            default:
-                return "Order " + order.getOrderNumber() + " status updated: " + event;
-        }
+    @Override
+    public boolean isTransactional() {
+        return true;
     }
 
     @Override
@@ -48,4 +60,3 @@ public class EmailNotificationObserver implements OrderObserver {
         return "EMAIL_NOTIFICATION";
     }
 }
-
@@ -1,6 +1,8 @@
 package com.vehicle.spareparts.observer;
 
 import com.vehicle.spareparts.entity.Order;
+import com.vehicle.spareparts.service.StockReservationLedger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -10,12 +12,15 @@ import org.springframework.stereotype.Component;
 @Component
 public class InventoryAlertObserver implements OrderObserver {
 
+    @Autowired
+    private StockReservationLedger stockReservationLedger;
+
     @Override
     public void update(Order order, String event) {
         // Check inventory levels when order is created
         if ("ORDER_CREATED".equals(event)) {
             order.getOrderItems().forEach(item -> {
-                int remainingStock = item.getSparePart().getStockQuantity();
+                int remainingStock = stockReservationLedger.getAvailable(item.getSparePart().getId());
                 int reorderLevel = item.getSparePart().getReorderLevel();
 
                 if (remainingStock <= reorderLevel) {
@@ -0,0 +1,59 @@
+package com.vehicle.spareparts.observer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notification text with {name} placeholders, parsed once into literal and
+ * placeholder segments so rendering is a single append pass.
+ */
+public final class MessageTemplate {
+
+    private final String[] literals;
+    private final String[] names;
+    private final int sizeHint;
+
+    private MessageTemplate(String[] literals, String[] names, int sizeHint) {
+        this.literals = literals;
+        this.names = names;
+        this.sizeHint = sizeHint;
+    }
+
+    /**
+     * Parse a template such as "Order {orderNumber} shipped!"
+     */
+    public static MessageTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = template.indexOf('{', position);
+            int close = open < 0 ? -1 : template.indexOf('}', open);
+            if (close < 0) {
+                literals.add(template.substring(position));
+                break;
+            }
+            literals.add(template.substring(position, open));
+            names.add(template.substring(open + 1, close));
+            position = close + 1;
+        }
+        return new MessageTemplate(literals.toArray(new String[0]), names.toArray(new String[0]),
+                template.length() + 32 * names.size());
+    }
+
+    /**
+     * Render with values by placeholder name; missing values render as empty
+     */
+    public String render(Map<String, ?> values) {
+        StringBuilder sb = new StringBuilder(sizeHint);
+        for (int i = 0; i < names.length; i++) {
+            sb.append(literals[i]);
+            Object value = values.get(names[i]);
+            if (value != null) {
+                sb.append(value);
+            }
+        }
+        return sb.append(literals[names.length]).toString();
+    }
+}
@@ -15,6 +15,15 @@ public interface OrderObserver {
      */
     void update(Order order, String event);
 
+    /**
+     * Whether the observer must run inside the publishing transaction,
+     * e.g. because it writes to the notification outbox
+     * @return true to be called inline even in ASYNC dispatch mode
+     */
+    default boolean isTransactional() {
+        return false;
+    }
+
     /**
      * Get observer name/type
      * @return Observer identifier
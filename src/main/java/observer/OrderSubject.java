@@ -1,27 +1,95 @@
 package com.vehicle.spareparts.observer;
 
 import com.vehicle.spareparts.entity.Order;
+import com.vehicle.spareparts.entity.OrderItem;
+import com.vehicle.spareparts.entity.SparePart;
+import com.vehicle.spareparts.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Subject/Observable - Order Subject
- * Manages observers and notifies them of order events
+ * Manages observers and notifies them of order events.
+ *
+ * In SYNC mode observers run inline on the caller's thread. In ASYNC mode
+ * each observer gets its own bounded queue and worker thread, and events are
+ * published only after the surrounding transaction commits. Queued
+ * observers get a detached copy of the order taken at event time (ids,
+ * number, amounts, status, customer contact and items), never the
+ * session-bound entity. Transactional
+ * observers (see OrderObserver.isTransactional) always run inline so their
+ * writes commit or roll back with the change.
+ *
+ * Backpressure policy (ASYNC): a full queue blocks the publisher for up to
+ * observer.offer-timeout-ms, after which the event is dropped for that
+ * observer and counted. A failing observer is retried up to
+ * observer.max-retries times with a linear backoff, then counted as failed.
  */
 @Component
 public class OrderSubject {
 
-    private final List<OrderObserver> observers = new ArrayList<>();
+    private static final Logger logger = LoggerFactory.getLogger(OrderSubject.class);
+
+    public enum DispatchMode { SYNC, ASYNC }
+
+    private final List<OrderObserver> observers = new CopyOnWriteArrayList<>();
+    private final Map<String, ObserverWorker> workers = new ConcurrentHashMap<>();
+
+    @Value("${observer.dispatch-mode:ASYNC}")
+    private volatile DispatchMode dispatchMode;
+
+    @Value("${observer.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${observer.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    @Value("${observer.max-retries:2}")
+    private int maxRetries;
+
+    private volatile boolean running;
 
     @Autowired
     public OrderSubject(List<OrderObserver> orderObservers) {
         // Auto-register all observers
         this.observers.addAll(orderObservers);
-        System.out.println("✅ Registered " + observers.size() + " order observers:");
-        observers.forEach(o -> System.out.println("   - " + o.getObserverName()));
+        logger.info("Registered {} order observers: {}", observers.size(), getObserverNames());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        if (dispatchMode == DispatchMode.ASYNC) {
+            observers.stream()
+                    .filter(observer -> !observer.isTransactional())
+                    .forEach(this::startWorker);
+        }
+        logger.info("Order observer dispatch mode: {}", dispatchMode);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        // Workers drain what is already queued before exiting
+        workers.values().forEach(ObserverWorker::shutdown);
     }
 
     /**
@@ -30,7 +98,10 @@ public class OrderSubject {
     public void attach(OrderObserver observer) {
         if (!observers.contains(observer)) {
             observers.add(observer);
-            System.out.println("Observer attached: " + observer.getObserverName());
+            if (dispatchMode == DispatchMode.ASYNC && running && !observer.isTransactional()) {
+                startWorker(observer);
+            }
+            logger.info("Observer attached: {}", observer.getObserverName());
         }
     }
 
@@ -39,26 +110,63 @@ public class OrderSubject {
      */
     public void detach(OrderObserver observer) {
         observers.remove(observer);
-        System.out.println("Observer detached: " + observer.getObserverName());
+        ObserverWorker worker = workers.remove(observer.getObserverName());
+        if (worker != null) {
+            worker.shutdown();
+        }
+        logger.info("Observer detached: {}", observer.getObserverName());
     }
 
     /**
      * Notify all observers of an event
      */
     public void notifyObservers(Order order, String event) {
-        System.out.println("\n🔔 NOTIFYING OBSERVERS: " + event);
-        System.out.println("Order: " + order.getOrderNumber());
-        System.out.println("===================================");
+        if (dispatchMode == DispatchMode.SYNC) {
+            notifySynchronously(order, event);
+            return;
+        }
 
         for (OrderObserver observer : observers) {
-            try {
-                observer.update(order, event);
-            } catch (Exception e) {
-                System.err.println("Error notifying observer " + observer.getObserverName() + ": " + e.getMessage());
+            if (observer.isTransactional()) {
+                try {
+                    observer.update(order, event);
+                } catch (Exception e) {
+                    logger.error("Error notifying observer {}: {}", observer.getObserverName(), e.getMessage());
+                }
             }
         }
 
-        System.out.println("✅ All observers notified\n");
+        // Observers run on other threads without a session and later, so copy the state they read now
+        Order snapshot = snapshot(order);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(snapshot, event);
+                }
+            });
+        } else {
+            publish(snapshot, event);
+        }
+    }
+
+    /**
+     * Switch dispatch mode at runtime, e.g. SYNC for tests
+     */
+    public void setDispatchMode(DispatchMode dispatchMode) {
+        this.dispatchMode = dispatchMode;
+        if (dispatchMode == DispatchMode.ASYNC && running) {
+            observers.forEach(observer -> {
+                if (!observer.isTransactional() && !workers.containsKey(observer.getObserverName())) {
+                    startWorker(observer);
+                }
+            });
+        }
+    }
+
+    public DispatchMode getDispatchMode() {
+        return dispatchMode;
     }
 
     /**
@@ -78,5 +186,206 @@ public class OrderSubject {
         }
         return names;
     }
-}
 
+    /**
+     * Queue depth, throughput, drops and latency per observer
+     */
+    public List<Map<String, Object>> getObserverStatistics() {
+        List<Map<String, Object>> statistics = new ArrayList<>();
+        for (ObserverWorker worker : workers.values()) {
+            statistics.add(worker.getStatistics());
+        }
+        return statistics;
+    }
+
+    private void notifySynchronously(Order order, String event) {
+        logger.debug("Notifying observers of {} for order {}", event, order.getOrderNumber());
+
+        for (OrderObserver observer : observers) {
+            try {
+                observer.update(order, event);
+            } catch (Exception e) {
+                logger.error("Error notifying observer {}: {}", observer.getObserverName(), e.getMessage());
+            }
+        }
+    }
+
+    private void publish(Order order, String event) {
+        for (OrderObserver observer : observers) {
+            ObserverWorker worker = workers.get(observer.getObserverName());
+            if (worker != null) {
+                worker.offer(order, event);
+            }
+        }
+    }
+
+    /**
+     * Detached copy of what observers read, taken while the session is open
+     */
+    private static Order snapshot(Order order) {
+        Order copy = new Order();
+        copy.setId(order.getId());
+        copy.setOrderNumber(order.getOrderNumber());
+        copy.setOrderDate(order.getOrderDate());
+        copy.setTotalAmount(order.getTotalAmount());
+        copy.setStatus(order.getStatus());
+        copy.setPaymentMethod(order.getPaymentMethod());
+        copy.setPaymentStatus(order.getPaymentStatus());
+        copy.setShippingAddress(order.getShippingAddress());
+        copy.setApprovedAt(order.getApprovedAt());
+        copy.setDeliveredAt(order.getDeliveredAt());
+        if (order.getCustomer() != null) {
+            User customer = order.getCustomer();
+            User contact = new User();
+            contact.setId(customer.getId());
+            contact.setUsername(customer.getUsername());
+            contact.setFullName(customer.getFullName());
+            contact.setEmail(customer.getEmail());
+            contact.setPhone(customer.getPhone());
+            copy.setCustomer(contact);
+        }
+        List<OrderItem> items = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            SparePart part = item.getSparePart();
+            SparePart partCopy = new SparePart();
+            partCopy.setId(part.getId());
+            partCopy.setPartNumber(part.getPartNumber());
+            partCopy.setPartName(part.getPartName());
+            partCopy.setReorderLevel(part.getReorderLevel());
+            OrderItem itemCopy = new OrderItem();
+            itemCopy.setId(item.getId());
+            itemCopy.setSparePart(partCopy);
+            itemCopy.setQuantity(item.getQuantity());
+            itemCopy.setUnitPrice(item.getUnitPrice());
+            itemCopy.setSubtotal(item.getSubtotal());
+            itemCopy.setWarrantyMonths(item.getWarrantyMonths());
+            items.add(itemCopy);
+        }
+        copy.setOrderItems(List.copyOf(items));
+        return copy;
+    }
+
+    private void startWorker(OrderObserver observer) {
+        ObserverWorker worker = new ObserverWorker(observer);
+        workers.put(observer.getObserverName(), worker);
+        worker.start();
+    }
+
+    /**
+     * Bounded queue plus dedicated worker thread for one observer
+     */
+    private class ObserverWorker implements Runnable {
+
+        private final OrderObserver observer;
+        private final BlockingQueue<Task> queue;
+        private final Thread thread;
+        private volatile boolean accepting = true;
+
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder retried = new LongAdder();
+        private final LongAdder processingNanos = new LongAdder();
+        private final LongAdder queueWaitNanos = new LongAdder();
+
+        private ObserverWorker(OrderObserver observer) {
+            this.observer = observer;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "order-observer-" + observer.getObserverName());
+            this.thread.setDaemon(true);
+        }
+
+        private void start() {
+            thread.start();
+        }
+
+        private void offer(Order order, String event) {
+            if (!accepting) {
+                dropped.increment();
+                return;
+            }
+            try {
+                if (!queue.offer(new Task(order, event, System.nanoTime()), offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    dropped.increment();
+                    logger.warn("Observer queue full, dropped {} for {}", event, observer.getObserverName());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (accepting || !queue.isEmpty()) {
+                try {
+                    Task task = queue.poll(500, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        process(task);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void process(Task task) throws InterruptedException {
+            long started = System.nanoTime();
+            queueWaitNanos.add(started - task.enqueuedAt);
+
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    observer.update(task.order, task.event);
+                    processed.increment();
+                    break;
+                } catch (Exception e) {
+                    if (attempt >= maxRetries) {
+                        failed.increment();
+                        logger.error("Error notifying observer {}: {}", observer.getObserverName(), e.getMessage());
+                        break;
+                    }
+                    retried.increment();
+                    Thread.sleep(100L * (attempt + 1));
+                }
+            }
+            processingNanos.add(System.nanoTime() - started);
+        }
+
+        private void shutdown() {
+            accepting = false;
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private Map<String, Object> getStatistics() {
+            long completed = processed.sum() + failed.sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("observer", observer.getObserverName());
+            stats.put("queueDepth", queue.size());
+            stats.put("queueCapacity", queueCapacity);
+            stats.put("processed", processed.sum());
+            stats.put("failed", failed.sum());
+            stats.put("retried", retried.sum());
+            stats.put("dropped", dropped.sum());
+            stats.put("avgProcessingMs", completed == 0 ? 0.0 : processingNanos.sum() / 1_000_000.0 / completed);
+            stats.put("avgQueueWaitMs", completed == 0 ? 0.0 : queueWaitNanos.sum() / 1_000_000.0 / completed);
+            return stats;
+        }
+    }
+
+    private static final class Task {
+        private final Order order;
+        private final String event;
+        private final long enqueuedAt;
+
+        private Task(Order order, String event, long enqueuedAt) {
+            this.order = order;
+            this.event = event;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -1,15 +1,33 @@
 package com.vehicle.spareparts.observer;
 
 import com.vehicle.spareparts.entity.Order;
+import com.vehicle.spareparts.service.NotificationOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Concrete Observer - SMS Notification
- * Sends SMS notifications when order events occur
+ * Queues SMS notifications in the outbox when order events occur
  */
 @Component
 public class SMSNotificationObserver implements OrderObserver {
 
+    private static final Map<String, MessageTemplate> MESSAGES = Map.of(
+            "ORDER_CREATED", MessageTemplate.compile("Order {orderNumber} created. Total: ${total}"),
+            "ORDER_APPROVED", MessageTemplate.compile("Order {orderNumber} approved!"),
+            "ORDER_SHIPPED", MessageTemplate.compile("Order {orderNumber} shipped! Track your delivery."),
+            "ORDER_DELIVERED", MessageTemplate.compile("Order {orderNumber} delivered. Thank you!"),
+            "ORDER_CANCELLED", MessageTemplate.compile("Order {orderNumber} cancelled.")
+    );
+
+    private static final MessageTemplate DEFAULT_MESSAGE = MessageTemplate.compile("Order {orderNumber} - {event}");
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
     @Override
     public void update(Order order, String event) {
         String customerPhone = order.getCustomer().getPhone();
@@ -19,32 +37,20 @@ public class SMSNotificationObserver implements OrderObserver {
             return;
         }
 
-        String message = generateSMSMessage(order, event);
+        Map<String, Object> values = new HashMap<>();
+        values.put("orderNumber", order.getOrderNumber());
+        values.put("total", order.getTotalAmount());
+        values.put("event", event);
 
-        // Simulate sending SMS
-        System.out.println("📱 SMS NOTIFICATION");
-        System.out.println("To: " + customerPhone);
-        System.out.println("Message: " + message);
-        System.out.println("-----------------------------------");
+        String message = MESSAGES.getOrDefault(event.toUpperCase(), DEFAULT_MESSAGE).render(values);
 
-        // In real implementation, integrate with SMS service (Twilio, AWS SNS, etc.)
+        // Sent later by NotificationRelay, committed together with the order change
+        notificationOutbox.enqueue("SMS", customerPhone, null, message, event, "ORDER", order.getId());
     }
 
-    private String generateSMSMessage(Order order, String event) {
-        switch (event.toUpperCase()) {
-            case "ORDER_CREATED":
-                return "Order " + order.getOrderNumber() + " created. Total: $" + order.getTotalAmount();
-            case "ORDER_APPROVED":
-                return "Order " + order.getOrderNumber() + " approved!";
-            case "ORDER_SHIPPED":
-                return "Order " + order.getOrderNumber() + " shipped! Track your delivery.";
-            case "ORDER_DELIVERED":
-                return "Order " + order.getOrderNumber() + " delivered. Thank you!";
-            case "ORDER_CANCELLED":
-                return "Order " + order.getOrderNumber() + " cancelled.";
-            default:
-                return "Order " + order.getOrderNumber() + " - " + event;
-        }
+    @Override
+    public boolean isTransactional() {
+        return true;
     }
 
     @Override
@@ -52,4 +58,3 @@ public class SMSNotificationObserver implements OrderObserver {
         return "SMS_NOTIFICATION";
     }
 }
-
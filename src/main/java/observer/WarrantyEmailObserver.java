@@ -1,60 +1,105 @@
 package com.vehicle.spareparts.observer;
 
 import com.vehicle.spareparts.entity.Warranty;
+import com.vehicle.spareparts.service.NotificationOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Concrete Observer - Warranty Email Notification
- * Sends email notifications for warranty events
+ * Queues email notifications in the outbox for warranty events
  */
 @Component
 public class WarrantyEmailObserver implements WarrantyObserver {
 
+    private static final MessageTemplate SUBJECT = MessageTemplate.compile("Warranty {warrantyNumber} - {event}");
+
+    private static final Map<String, MessageTemplate> MESSAGES = Map.of(
+            "WARRANTY_CREATED", MessageTemplate.compile(
+                    "Congratulations! Your warranty {warrantyNumber} has been created for {partName}. " +
+                    "Valid until {expiryDate}."),
+            "WARRANTY_CLAIM_FILED", MessageTemplate.compile(
+                    "Your warranty claim for {warrantyNumber} has been submitted. We will review it shortly."),
+            "WARRANTY_CLAIM_APPROVED", MessageTemplate.compile(
+                    "Great news! Your warranty claim {warrantyNumber} has been approved. " +
+                    "A replacement will be sent to you."),
+            "WARRANTY_CLAIM_REJECTED", MessageTemplate.compile(
+                    "Your warranty claim {warrantyNumber} has been rejected. Reason: {claimNotes}"),
+            "WARRANTY_EXPIRING", MessageTemplate.compile(
+                    "Your warranty {warrantyNumber} for {partName} is expiring on {expiryDate}."),
+            "WARRANTY_EXPIRED", MessageTemplate.compile(
+                    "Your warranty {warrantyNumber} has expired. Consider purchasing an extended warranty."),
+            "WARRANTY_EXPIRING_SOON", MessageTemplate.compile(
+                    "Reminder: your warranty {warrantyNumber} for {partName} expires on {expiryDate}. " +
+                    "File any claim before then.")
+    );
+
+    private static final MessageTemplate DEFAULT_MESSAGE = MessageTemplate.compile("Warranty {warrantyNumber} - {event}");
+
+    private static final MessageTemplate BATCH_SUBJECT = MessageTemplate.compile("{count} new warranties for your order");
+    private static final MessageTemplate BATCH_MESSAGE = MessageTemplate.compile(
+            "Congratulations! {count} warranties have been created for your purchase:\n{warranties}");
+    private static final MessageTemplate BATCH_LINE = MessageTemplate.compile(
+            "- {warrantyNumber}: {partName}, valid until {expiryDate}\n");
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
     @Override
     public void update(Warranty warranty, String event) {
-        String customerEmail = warranty.getCustomer().getEmail();
-        String message = generateEmailMessage(warranty, event);
+        Map<String, Object> values = new HashMap<>();
+        values.put("warrantyNumber", warranty.getWarrantyNumber());
+        values.put("partName", warranty.getSparePart().getPartName());
+        values.put("expiryDate", warranty.getExpiryDate());
+        values.put("claimNotes", warranty.getClaimNotes());
+        values.put("event", event);
 
-        // Simulate sending email
-        System.out.println("📧 WARRANTY EMAIL NOTIFICATION");
-        System.out.println("To: " + customerEmail);
-        System.out.println("Subject: Warranty " + warranty.getWarrantyNumber() + " - " + event);
-        System.out.println("Message: " + message);
-        System.out.println("-----------------------------------");
+        String message = MESSAGES.getOrDefault(event.toUpperCase(), DEFAULT_MESSAGE).render(values);
 
-        // In real implementation, integrate with email service
+        // Sent later by NotificationRelay, committed together with the warranty change
+        notificationOutbox.enqueue("EMAIL", warranty.getCustomer().getEmail(), SUBJECT.render(values), message,
+                event, "WARRANTY", warranty.getId());
     }
 
-    private String generateEmailMessage(Warranty warranty, String event) {
-        switch (event.toUpperCase()) {
-            case "WARRANTY_CREATED":
-                return "Congratulations! Your warranty " + warranty.getWarrantyNumber() +
-                       " has been created for " + warranty.getSparePart().getPartName() +
-                       ". Valid until " + warranty.getExpiryDate() + ".";
-
-            case "WARRANTY_CLAIM_FILED":
-                return "Your warranty claim for " + warranty.getWarrantyNumber() +
-                       " has been submitted. We will review it shortly.";
-
-            case "WARRANTY_CLAIM_APPROVED":
-                return "Great news! Your warranty claim " + warranty.getWarrantyNumber() +
-                       " has been approved. A replacement will be sent to you.";
+    /**
+     * WARRANTIES_CREATED sends one email per customer listing all new
+     * warranties; other events fall back to one email per warranty
+     */
+    @Override
+    public void updateBatch(List<Warranty> warranties, String event) {
+        if (!"WARRANTIES_CREATED".equalsIgnoreCase(event)) {
+            WarrantyObserver.super.updateBatch(warranties, event);
+            return;
+        }
 
-            case "WARRANTY_CLAIM_REJECTED":
-                return "Your warranty claim " + warranty.getWarrantyNumber() +
-                       " has been rejected. Reason: " + warranty.getClaimNotes();
+        Map<Long, List<Warranty>> byCustomer = new LinkedHashMap<>();
+        for (Warranty warranty : warranties) {
+            byCustomer.computeIfAbsent(warranty.getCustomer().getId(), id -> new ArrayList<>()).add(warranty);
+        }
 
-            case "WARRANTY_EXPIRING":
-                return "Your warranty " + warranty.getWarrantyNumber() +
-                       " for " + warranty.getSparePart().getPartName() +
-                       " is expiring on " + warranty.getExpiryDate() + ".";
+        for (List<Warranty> owned : byCustomer.values()) {
+            StringBuilder lines = new StringBuilder();
+            for (Warranty warranty : owned) {
+                Map<String, Object> line = new HashMap<>();
+                line.put("warrantyNumber", warranty.getWarrantyNumber());
+                line.put("partName", warranty.getSparePart().getPartName());
+                line.put("expiryDate", warranty.getExpiryDate());
+                lines.append(BATCH_LINE.render(line));
+            }
 
-            case "WARRANTY_EXPIRED":
-                return "Your warranty " + warranty.getWarrantyNumber() +
-                       " has expired. Consider purchasing an extended warranty.";
+            Warranty first = owned.get(0);
+            Map<String, Object> values = new HashMap<>();
+            values.put("count", owned.size());
+            values.put("warranties", lines);
 
-            default:
-                return "Warranty " + warranty.getWarrantyNumber() + " - " + event;
+            notificationOutbox.enqueue("EMAIL", first.getCustomer().getEmail(), BATCH_SUBJECT.render(values),
+                    BATCH_MESSAGE.render(values), event, "ORDER", first.getOrderItem().getOrder().getId());
         }
     }
 
@@ -63,4 +108,3 @@ public class WarrantyEmailObserver implements WarrantyObserver {
         return "WARRANTY_EMAIL_NOTIFICATION";
     }
 }
-
@@ -2,6 +2,8 @@ package com.vehicle.spareparts.observer;
 
 import com.vehicle.spareparts.entity.Warranty;
 
+import java.util.List;
+
 /**
  * Observer Pattern - Warranty Observer Interface
  * Defines contract for observers that react to warranty events
@@ -15,6 +17,16 @@ public interface WarrantyObserver {
      */
     void update(Warranty warranty, String event);
 
+    /**
+     * Update observer with the same event for many warranties
+     * Observers that can batch their work override this
+     */
+    default void updateBatch(List<Warranty> warranties, String event) {
+        for (Warranty warranty : warranties) {
+            update(warranty, event);
+        }
+    }
+
     /**
      * Get observer name/type
      * @return Observer identifier
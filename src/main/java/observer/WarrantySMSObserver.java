@@ -1,15 +1,46 @@
 package com.vehicle.spareparts.observer;
 
 import com.vehicle.spareparts.entity.Warranty;
+import com.vehicle.spareparts.service.NotificationOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
 /**
  * Concrete Observer - Warranty SMS Notification
- * Sends SMS notifications for warranty events
+ * Queues SMS notifications in the outbox for warranty events
  */
 @Component
 public class WarrantySMSObserver implements WarrantyObserver {
 
+    private static final Map<String, MessageTemplate> MESSAGES = Map.of(
+            "WARRANTY_CREATED", MessageTemplate.compile(
+                    "Warranty {warrantyNumber} created for {partName}. Valid until {expiryDate}"),
+            "WARRANTY_CLAIM_FILED", MessageTemplate.compile("Warranty claim {warrantyNumber} filed. Under review."),
+            "WARRANTY_CLAIM_APPROVED", MessageTemplate.compile(
+                    "Warranty claim {warrantyNumber} APPROVED! Replacement coming."),
+            "WARRANTY_CLAIM_REJECTED", MessageTemplate.compile(
+                    "Warranty claim {warrantyNumber} rejected. Check email for details."),
+            "WARRANTY_EXPIRING", MessageTemplate.compile("Warranty {warrantyNumber} expires on {expiryDate}"),
+            "WARRANTY_EXPIRING_SOON", MessageTemplate.compile(
+                    "Reminder: warranty {warrantyNumber} expires on {expiryDate}. File claims before then."),
+            "WARRANTY_EXPIRED", MessageTemplate.compile("Warranty {warrantyNumber} has expired.")
+    );
+
+    private static final MessageTemplate DEFAULT_MESSAGE = MessageTemplate.compile("Warranty {warrantyNumber} - {event}");
+
+    private static final MessageTemplate BATCH_MESSAGE = MessageTemplate.compile(
+            "{count} warranties activated: {warrantyNumbers}. Details sent by email.");
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
     @Override
     public void update(Warranty warranty, String event) {
         String customerPhone = warranty.getCustomer().getPhone();
@@ -19,37 +50,51 @@ public class WarrantySMSObserver implements WarrantyObserver {
             return;
         }
 
-        String message = generateSMSMessage(warranty, event);
+        Map<String, Object> values = new HashMap<>();
+        values.put("warrantyNumber", warranty.getWarrantyNumber());
+        values.put("partName", warranty.getSparePart().getPartName());
+        values.put("expiryDate", warranty.getExpiryDate());
+        values.put("event", event);
 
-        // Simulate sending SMS
-        System.out.println("📱 WARRANTY SMS NOTIFICATION");
-        System.out.println("To: " + customerPhone);
-        System.out.println("Message: " + message);
-        System.out.println("-----------------------------------");
+        String message = MESSAGES.getOrDefault(event.toUpperCase(), DEFAULT_MESSAGE).render(values);
 
-        // In real implementation, integrate with SMS service (Twilio, AWS SNS)
+        // Sent later by NotificationRelay, committed together with the warranty change
+        notificationOutbox.enqueue("SMS", customerPhone, null, message, event, "WARRANTY", warranty.getId());
     }
 
-    private String generateSMSMessage(Warranty warranty, String event) {
-        switch (event.toUpperCase()) {
-            case "WARRANTY_CREATED":
-                return "Warranty " + warranty.getWarrantyNumber() + " created for " +
-                       warranty.getSparePart().getPartName() + ". Valid until " + warranty.getExpiryDate();
+    /**
+     * WARRANTIES_CREATED sends one SMS per customer; other events fall back
+     * to one SMS per warranty
+     */
+    @Override
+    public void updateBatch(List<Warranty> warranties, String event) {
+        if (!"WARRANTIES_CREATED".equalsIgnoreCase(event)) {
+            WarrantyObserver.super.updateBatch(warranties, event);
+            return;
+        }
 
-            case "WARRANTY_CLAIM_FILED":
-                return "Warranty claim " + warranty.getWarrantyNumber() + " filed. Under review.";
+        Map<Long, List<Warranty>> byCustomer = new LinkedHashMap<>();
+        for (Warranty warranty : warranties) {
+            byCustomer.computeIfAbsent(warranty.getCustomer().getId(), id -> new ArrayList<>()).add(warranty);
+        }
 
-            case "WARRANTY_CLAIM_APPROVED":
-                return "Warranty claim " + warranty.getWarrantyNumber() + " APPROVED! Replacement coming.";
+        for (List<Warranty> owned : byCustomer.values()) {
+            Warranty first = owned.get(0);
+            String customerPhone = first.getCustomer().getPhone();
+            if (customerPhone == null || customerPhone.isEmpty()) {
+                System.out.println("⚠️ WARRANTY SMS not sent: Customer phone number not available");
+                continue;
+            }
 
-            case "WARRANTY_CLAIM_REJECTED":
-                return "Warranty claim " + warranty.getWarrantyNumber() + " rejected. Check email for details.";
+            StringJoiner numbers = new StringJoiner(", ");
+            owned.forEach(warranty -> numbers.add(warranty.getWarrantyNumber()));
 
-            case "WARRANTY_EXPIRING":
-                return "Warranty " + warranty.getWarrantyNumber() + " expires on " + warranty.getExpiryDate();
+            Map<String, Object> values = new HashMap<>();
+            values.put("count", owned.size());
+            values.put("warrantyNumbers", numbers);
 
-            default:
-                return "Warranty " + warranty.getWarrantyNumber() + " - " + event;
+            notificationOutbox.enqueue("SMS", customerPhone, null, BATCH_MESSAGE.render(values), event,
+                    "ORDER", first.getOrderItem().getOrder().getId());
         }
     }
 
@@ -58,4 +103,3 @@ public class WarrantySMSObserver implements WarrantyObserver {
         return "WARRANTY_SMS_NOTIFICATION";
     }
 }
-
@@ -62,6 +62,26 @@ public class WarrantySubject {
         System.out.println("✅ All warranty observers notified\n");
     }
 
+    /**
+     * Notify all observers of one event raised for a batch of warranties,
+     * e.g. the warranties expired by a single sweep
+     */
+    public void notifyObservers(List<Warranty> warranties, String event) {
+        if (warranties.isEmpty()) {
+            return;
+        }
+        System.out.println("\n🔔 NOTIFYING WARRANTY OBSERVERS: " + event + " (" + warranties.size() + " warranties)");
+
+        for (WarrantyObserver observer : observers) {
+            try {
+                observer.updateBatch(warranties, event);
+            } catch (Exception e) {
+                System.err.println("Error notifying warranty observer " +
+                                 observer.getObserverName() + ": " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Get count of registered observers
      */
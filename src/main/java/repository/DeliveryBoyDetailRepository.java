@@ -1,9 +1,14 @@
 package com.vehicle.spareparts.repository;
 
+import com.vehicle.spareparts.dto.DeliveryBoyResponse;
 import com.vehicle.spareparts.entity.DeliveryBoyDetail;
 import com.vehicle.spareparts.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,22 @@ public interface DeliveryBoyDetailRepository extends JpaRepository<DeliveryBoyDe
     Optional<DeliveryBoyDetail> findByUser(User user);
     boolean existsByVehicleNumber(String vehicleNumber);
     boolean existsByLicenseNumber(String licenseNumber);
-}
\ No newline at end of file
+    
+    // Delivery staff with their vehicle details, by id, in one query
+    @Query("SELECT new com.vehicle.spareparts.dto.DeliveryBoyResponse(" +
+           "u.id, u.username, u.email, u.fullName, u.phone, u.address, u.isActive, u.createdAt, u.updatedAt, " +
+           "d.vehicleMake, d.vehicleModel, d.vehicleNumber, d.licenseNumber, d.drivingExperience) " +
+           "FROM User u LEFT JOIN DeliveryBoyDetail d ON d.user = u " +
+           "WHERE u.role.name = 'DELIVERY_STAFF' AND u.id > :afterId ORDER BY u.id")
+    List<DeliveryBoyResponse> findRoster(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Which of the registration's unique values are already taken, in one round trip
+    @Query(value = "SELECT 'USERNAME' FROM users WHERE username = :username " +
+                   "UNION ALL SELECT 'EMAIL' FROM users WHERE email = :email " +
+                   "UNION ALL SELECT 'VEHICLE_NUMBER' FROM delivery_boy_details WHERE vehicle_number = :vehicleNumber " +
+                   "UNION ALL SELECT 'LICENSE_NUMBER' FROM delivery_boy_details WHERE license_number = :licenseNumber",
+           nativeQuery = true)
+    List<String> findTakenRegistrationFields(@Param("username") String username, @Param("email") String email,
+                                             @Param("vehicleNumber") String vehicleNumber,
+                                             @Param("licenseNumber") String licenseNumber);
+}
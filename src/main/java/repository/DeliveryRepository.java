@@ -1,10 +1,21 @@
 package com.vehicle.spareparts.repository;
 
+import com.vehicle.spareparts.dto.DeliveryParticipants;
+import com.vehicle.spareparts.dto.DeliverySummary;
+import com.vehicle.spareparts.dto.PendingDelivery;
+import com.vehicle.spareparts.dto.StaffWorkload;
+import com.vehicle.spareparts.dto.StatusCount;
 import com.vehicle.spareparts.entity.Delivery;
+import com.vehicle.spareparts.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,4 +33,60 @@ public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
     
     @Query("SELECT COUNT(d) FROM Delivery d WHERE d.status = :status")
     Long countByStatus(@Param("status") String status);
+    
+    @Query("SELECT d.status AS status, COUNT(d) AS total FROM Delivery d GROUP BY d.status")
+    List<StatusCount> countGroupedByStatus();
+    
+    @Query("SELECT d.status AS status, s.id AS staffId, s.username AS staffUsername, c.username AS customerUsername " +
+           "FROM Delivery d JOIN d.order o JOIN o.customer c LEFT JOIN d.deliveryStaff s WHERE d.id = :id")
+    Optional<DeliveryParticipants> findParticipants(@Param("id") Long id);
+    
+    @EntityGraph(attributePaths = {"order", "deliveryStaff"})
+    Optional<Delivery> findWithDetailsById(Long id);
+    
+    @Query("SELECT new com.vehicle.spareparts.dto.DeliverySummary(" +
+           "d.id, d.deliveryNumber, d.status, o.id, o.orderNumber, s.id, s.fullName, d.deliveryAddress, " +
+           "d.assignedAt, d.dispatchedAt, d.deliveredAt, d.createdAt) " +
+           "FROM Delivery d JOIN d.order o LEFT JOIN d.deliveryStaff s " +
+           "WHERE d.createdAt <= :createdAt AND (d.createdAt < :createdAt OR d.id < :id) " +
+           "ORDER BY d.createdAt DESC, d.id DESC")
+    List<DeliverySummary> findSummaries(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                        Pageable pageable);
+    
+    @Query("SELECT new com.vehicle.spareparts.dto.DeliverySummary(" +
+           "d.id, d.deliveryNumber, d.status, o.id, o.orderNumber, s.id, s.fullName, d.deliveryAddress, " +
+           "d.assignedAt, d.dispatchedAt, d.deliveredAt, d.createdAt) " +
+           "FROM Delivery d JOIN d.order o LEFT JOIN d.deliveryStaff s " +
+           "WHERE d.status = :status AND " +
+           "d.createdAt <= :createdAt AND (d.createdAt < :createdAt OR d.id < :id) " +
+           "ORDER BY d.createdAt DESC, d.id DESC")
+    List<DeliverySummary> findSummariesByStatus(@Param("status") String status,
+                                                @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                Pageable pageable);
+    
+    @Query("SELECT new com.vehicle.spareparts.dto.DeliverySummary(" +
+           "d.id, d.deliveryNumber, d.status, o.id, o.orderNumber, s.id, s.fullName, d.deliveryAddress, " +
+           "d.assignedAt, d.dispatchedAt, d.deliveredAt, d.createdAt) " +
+           "FROM Delivery d JOIN d.order o LEFT JOIN d.deliveryStaff s " +
+           "WHERE d.deliveryStaff.id = :staffId AND " +
+           "d.assignedAt <= :assignedAt AND (d.assignedAt < :assignedAt OR d.id < :id) " +
+           "ORDER BY d.assignedAt DESC, d.id DESC")
+    List<DeliverySummary> findSummariesByStaff(@Param("staffId") Long staffId,
+                                               @Param("assignedAt") LocalDateTime assignedAt, @Param("id") Long id,
+                                               Pageable pageable);
+    
+    @Query("SELECT d.id AS id, d.deliveryAddress AS deliveryAddress FROM Delivery d " +
+           "WHERE d.status = 'PENDING' AND d.deliveryStaff IS NULL ORDER BY d.createdAt, d.id")
+    List<PendingDelivery> findUnassignedPending(Pageable pageable);
+    
+    @Query("SELECT d.deliveryStaff.id AS staffId, COUNT(d) AS total FROM Delivery d " +
+           "WHERE d.deliveryStaff IS NOT NULL AND d.status NOT IN ('DELIVERED', 'FAILED') " +
+           "GROUP BY d.deliveryStaff.id")
+    List<StaffWorkload> countOpenByStaff();
+    
+    @Modifying
+    @Query("UPDATE Delivery d SET d.deliveryStaff = :staff, d.assignedAt = :assignedAt, d.updatedAt = :assignedAt " +
+           "WHERE d.id IN :ids AND d.status = 'PENDING' AND d.deliveryStaff IS NULL")
+    int assignUnassigned(@Param("ids") Collection<Long> ids, @Param("staff") User staff,
+                         @Param("assignedAt") LocalDateTime assignedAt);
 }
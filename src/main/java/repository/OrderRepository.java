@@ -1,7 +1,9 @@
 package com.vehicle.spareparts.repository;
 
 import com.vehicle.spareparts.entity.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,8 +18,14 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     List<Order> findByCustomerId(Long customerId);
     
+    @EntityGraph("Order.withDetails")
     List<Order> findByStatus(String status);
     
+    @EntityGraph("Order.withDetails")
+    @Query("SELECT o FROM Order o ORDER BY o.id")
+    List<Order> findAllWithDetails();
+    
+    @EntityGraph("Order.withDetails")
     @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId ORDER BY o.orderDate DESC")
     List<Order> findCustomerOrders(@Param("customerId") Long customerId);
     
@@ -27,4 +35,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     Long countByStatus(@Param("status") String status);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.paymentStatus = :paymentStatus, o.updatedAt = :updatedAt WHERE o.id = :id")
+    int updatePaymentStatus(@Param("id") Long id, @Param("paymentStatus") String paymentStatus,
+                            @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Rows of [status, order count, total amount]
+    @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o GROUP BY o.status")
+    List<Object[]> aggregateByStatus();
+    
+    // Rows of [day, total amount]
+    @Query(value = "SELECT DATE(order_date), SUM(total_amount) FROM orders GROUP BY DATE(order_date)", nativeQuery = true)
+    List<Object[]> sumRevenueByDay();
 }
@@ -1,12 +1,18 @@
 package com.vehicle.spareparts.repository;
 
+import com.vehicle.spareparts.dto.InventorySummary;
 import com.vehicle.spareparts.entity.SparePart;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SparePartRepository extends JpaRepository<SparePart, Long> {
@@ -20,6 +26,16 @@ public interface SparePartRepository extends JpaRepository<SparePart, Long> {
     @Query("SELECT s FROM SparePart s WHERE s.stockQuantity <= s.reorderLevel AND s.isActive = true")
     List<SparePart> findLowStockParts();
     
+    @Query("SELECT s FROM SparePart s WHERE s.stockQuantity < s.reorderLevel ORDER BY s.stockQuantity, s.id")
+    List<SparePart> findBelowReorderLevel();
+    
+    @Query("SELECT COUNT(s) AS totalParts, " +
+           "COALESCE(SUM(CASE WHEN s.stockQuantity < s.reorderLevel THEN 1 ELSE 0 END), 0) AS lowStockCount, " +
+           "COALESCE(SUM(CASE WHEN s.stockQuantity = 0 THEN 1 ELSE 0 END), 0) AS outOfStockCount, " +
+           "COALESCE(SUM(s.price * s.stockQuantity), 0) AS totalInventoryValue " +
+           "FROM SparePart s")
+    InventorySummary summarizeInventory();
+    
     @Query("SELECT s FROM SparePart s WHERE " +
            "(LOWER(s.partName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(s.partNumber) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -30,4 +46,24 @@ public interface SparePartRepository extends JpaRepository<SparePart, Long> {
     
     @Query("SELECT DISTINCT s.category FROM SparePart s WHERE s.isActive = true ORDER BY s.category")
     List<String> findAllCategories();
+    
+    // Keyset pages: pass the last id of the previous page as "after" and the page size via Pageable
+    @Query("SELECT s FROM SparePart s WHERE s.isActive = true AND s.id > :after ORDER BY s.id")
+    List<SparePart> findActiveAfter(@Param("after") Long after, Pageable pageable);
+    
+    // Streams need an open transaction; the fetch size keeps the driver from buffering the whole result
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT s FROM SparePart s WHERE s.isActive = true ORDER BY s.id")
+    Stream<SparePart> streamActive();
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT s FROM SparePart s WHERE s.category = :category ORDER BY s.id")
+    Stream<SparePart> streamByCategory(@Param("category") String category);
+    
+    @Query("SELECT s.stockQuantity FROM SparePart s WHERE s.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
+    
+    // Rows of [id, stockQuantity]
+    @Query("SELECT s.id, s.stockQuantity FROM SparePart s WHERE s.id IN :ids")
+    List<Object[]> findStockQuantitiesByIds(@Param("ids") Collection<Long> ids);
 }
@@ -25,5 +25,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.role.name = :roleName AND u.isActive = true")
     List<User> findActiveUsersByRole(@Param("roleName") String roleName);
     
+    @Query("SELECT u.id FROM User u WHERE u.role.name = :roleName AND u.isActive = true")
+    List<Long> findActiveUserIdsByRole(@Param("roleName") String roleName);
+    
+    @Query("SELECT u.id FROM User u WHERE u.role.name = :roleName AND u.isActive = false")
+    List<Long> findInactiveUserIdsByRole(@Param("roleName") String roleName);
+    
+    @Query("SELECT u.id FROM User u WHERE u.username = :username AND u.role.name = :roleName AND u.isActive = true")
+    Optional<Long> findActiveIdByUsernameAndRole(@Param("username") String username, @Param("roleName") String roleName);
+    
     List<User> findByIsActive(Boolean isActive);
 }
\ No newline at end of file
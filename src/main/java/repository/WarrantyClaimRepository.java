@@ -1,11 +1,18 @@
 package com.vehicle.spareparts.repository;
 
+import com.vehicle.spareparts.dto.WarrantyClaimSummary;
 import com.vehicle.spareparts.entity.WarrantyClaim;
 import com.vehicle.spareparts.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WarrantyClaimRepository extends JpaRepository<WarrantyClaim, Long> {
@@ -14,4 +21,39 @@ public interface WarrantyClaimRepository extends JpaRepository<WarrantyClaim, Lo
     List<WarrantyClaim> findByCustomerOrderByCreatedAtDesc(User customer);
     List<WarrantyClaim> findAllByOrderByCreatedAtDesc();
     boolean existsByClaimNumber(String claimNumber);
+    
+    @EntityGraph(attributePaths = {"customer", "product", "order", "processedBy"})
+    Optional<WarrantyClaim> findWithDetailsById(Long id);
+    
+    // Claim summaries, newest first, in keyset pages after (createdAt, id)
+    @Query("SELECT new com.vehicle.spareparts.dto.WarrantyClaimSummary(" +
+           "c.id, c.claimNumber, c.status, cu.id, cu.fullName, p.id, p.partName, o.id, o.orderNumber, " +
+           "c.purchaseDate, c.warrantyExpiryDate, c.createdAt, c.processedAt) " +
+           "FROM WarrantyClaim c JOIN c.customer cu JOIN c.product p JOIN c.order o " +
+           "WHERE c.createdAt <= :createdAt AND (c.createdAt < :createdAt OR c.id < :id) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<WarrantyClaimSummary> findSummaries(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                             Pageable pageable);
+    
+    @Query("SELECT new com.vehicle.spareparts.dto.WarrantyClaimSummary(" +
+           "c.id, c.claimNumber, c.status, cu.id, cu.fullName, p.id, p.partName, o.id, o.orderNumber, " +
+           "c.purchaseDate, c.warrantyExpiryDate, c.createdAt, c.processedAt) " +
+           "FROM WarrantyClaim c JOIN c.customer cu JOIN c.product p JOIN c.order o " +
+           "WHERE c.status = :status AND " +
+           "c.createdAt <= :createdAt AND (c.createdAt < :createdAt OR c.id < :id) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<WarrantyClaimSummary> findSummariesByStatus(@Param("status") WarrantyClaim.WarrantyClaimStatus status,
+                                                     @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                     Pageable pageable);
+    
+    @Query("SELECT new com.vehicle.spareparts.dto.WarrantyClaimSummary(" +
+           "c.id, c.claimNumber, c.status, cu.id, cu.fullName, p.id, p.partName, o.id, o.orderNumber, " +
+           "c.purchaseDate, c.warrantyExpiryDate, c.createdAt, c.processedAt) " +
+           "FROM WarrantyClaim c JOIN c.customer cu JOIN c.product p JOIN c.order o " +
+           "WHERE c.customer.id = :customerId AND " +
+           "c.createdAt <= :createdAt AND (c.createdAt < :createdAt OR c.id < :id) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<WarrantyClaimSummary> findSummariesByCustomer(@Param("customerId") Long customerId,
+                                                       @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                       Pageable pageable);
 }
@@ -1,11 +1,18 @@
 package com.vehicle.spareparts.repository;
 
+import com.vehicle.spareparts.dto.StatusCount;
+import com.vehicle.spareparts.dto.WarrantyExpiry;
+import com.vehicle.spareparts.dto.WarrantyValidity;
 import com.vehicle.spareparts.entity.Warranty;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +28,47 @@ public interface WarrantyRepository extends JpaRepository<Warranty, Long> {
     
     @Query("SELECT w FROM Warranty w WHERE w.expiryDate < :date AND w.status = 'ACTIVE'")
     List<Warranty> findExpiredWarranties(@Param("date") LocalDate date);
+    
+    @Query("SELECT w.orderItem.id FROM Warranty w WHERE w.orderItem.id IN :orderItemIds")
+    List<Long> findIssuedOrderItemIds(@Param("orderItemIds") Collection<Long> orderItemIds);
+    
+    @Query("SELECT w FROM Warranty w JOIN FETCH w.customer JOIN FETCH w.sparePart " +
+           "WHERE w.claimStatus = :claimStatus ORDER BY w.claimDate")
+    List<Warranty> findByClaimStatus(@Param("claimStatus") String claimStatus);
+    
+    @Query("SELECT w.status AS status, COUNT(w) AS total FROM Warranty w GROUP BY w.status")
+    List<StatusCount> countGroupedByStatus();
+    
+    @Query("SELECT w.claimStatus AS status, COUNT(w) AS total FROM Warranty w " +
+           "WHERE w.claimStatus IS NOT NULL GROUP BY w.claimStatus")
+    List<StatusCount> countGroupedByClaimStatus();
+    
+    @Query("SELECT w.id FROM Warranty w WHERE w.expiryDate < :date AND w.status = 'ACTIVE' ORDER BY w.id")
+    List<Long> findExpiredIds(@Param("date") LocalDate date, Pageable pageable);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Warranty w SET w.status = 'EXPIRED', w.updatedAt = :updatedAt " +
+           "WHERE w.id IN :ids AND w.status = 'ACTIVE'")
+    int expireByIds(@Param("ids") Collection<Long> ids, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Query("SELECT w FROM Warranty w JOIN FETCH w.customer JOIN FETCH w.sparePart " +
+           "WHERE w.id IN :ids ORDER BY w.expiryDate, w.id")
+    List<Warranty> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT w FROM Warranty w JOIN FETCH w.customer JOIN FETCH w.sparePart " +
+           "WHERE w.status = 'ACTIVE' AND w.expiryDate > :after AND w.expiryDate < :before " +
+           "ORDER BY w.expiryDate, w.id")
+    List<Warranty> findActiveExpiringBetween(@Param("after") LocalDate after, @Param("before") LocalDate before);
+    
+    @Query("SELECT w.id AS id, w.expiryDate AS expiryDate FROM Warranty w " +
+           "WHERE w.status = 'ACTIVE' AND w.id > :afterId ORDER BY w.id")
+    List<WarrantyExpiry> findActiveExpiries(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT w.id AS id, w.warrantyNumber AS warrantyNumber, w.expiryDate AS expiryDate, w.status AS status " +
+           "FROM Warranty w WHERE w.id > :afterId ORDER BY w.id")
+    List<WarrantyValidity> findValidities(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT w.id AS id, w.warrantyNumber AS warrantyNumber, w.expiryDate AS expiryDate, w.status AS status " +
+           "FROM Warranty w WHERE w.warrantyNumber IN :warrantyNumbers")
+    List<WarrantyValidity> findValiditiesByNumbers(@Param("warrantyNumbers") Collection<String> warrantyNumbers);
 }
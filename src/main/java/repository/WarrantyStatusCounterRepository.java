@@ -0,0 +1,25 @@
+package com.vehicle.spareparts.repository;
+
+import com.vehicle.spareparts.entity.WarrantyStatusCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WarrantyStatusCounterRepository extends JpaRepository<WarrantyStatusCounter, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO warranty_status_counters (counter_key, total) VALUES (:key, :delta) " +
+                   "ON DUPLICATE KEY UPDATE total = total + :delta", nativeQuery = true)
+    int increment(@Param("key") String key, @Param("delta") long delta);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM WarrantyStatusCounter c")
+    List<WarrantyStatusCounter> findAllForUpdate();
+}
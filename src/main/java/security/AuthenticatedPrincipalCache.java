@@ -0,0 +1,105 @@
+package com.vehicle.spareparts.security;
+
+import com.vehicle.spareparts.cache.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authenticated Principal Cache
+ * Maps a validated JWT (by SHA-256 hash, never the raw token) to the loaded
+ * UserDetails until the token expires, so authenticated requests need
+ * neither a signature check nor a users table lookup.
+ *
+ * Entries are invalidated per username: changing a user bumps its
+ * generation and every cached principal of an older generation is ignored.
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private int maximumSize;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    private BoundedCache<String, CachedPrincipal> principals;
+
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        principals = new BoundedCache<>("principals", maximumSize, Duration.ofMillis(jwtExpiration));
+    }
+
+    /**
+     * Get the principal cached for a token, or null
+     */
+    public UserDetails get(String token) {
+        String key = hash(token);
+        CachedPrincipal cached = principals.getIfPresent(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt <= System.currentTimeMillis()
+                || cached.generation != generation(cached.userDetails.getUsername())) {
+            principals.invalidate(key);
+            return null;
+        }
+        return cached.userDetails;
+    }
+
+    /**
+     * Cache a principal. Pass the generation read before the user was loaded,
+     * so a concurrent invalidation is not lost.
+     */
+    public void put(String token, UserDetails userDetails, Date expiration, long generation) {
+        principals.put(hash(token), new CachedPrincipal(userDetails, expiration.getTime(), generation));
+    }
+
+    /**
+     * Current generation of a username
+     */
+    public long generation(String username) {
+        AtomicLong generation = generations.get(username);
+        return generation != null ? generation.get() : 0L;
+    }
+
+    /**
+     * Drop every cached principal of a user, e.g. after deactivation or a role change
+     */
+    public void invalidateUser(String username) {
+        generations.computeIfAbsent(username, u -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class CachedPrincipal {
+        private final UserDetails userDetails;
+        private final long expiresAt;
+        private final long generation;
+
+        private CachedPrincipal(UserDetails userDetails, long expiresAt, long generation) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+            this.generation = generation;
+        }
+    }
+}
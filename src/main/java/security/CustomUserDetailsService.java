@@ -24,9 +24,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     private UserRepository userRepository;
     
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        logger.info("Loading user details for: {}", username);
+        logger.debug("Loading user details for: {}", username);
         
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> {
@@ -34,7 +34,7 @@ public class CustomUserDetailsService implements UserDetailsService {
                     return new UsernameNotFoundException("User not found with username: " + username);
                 });
         
-        logger.info("User found: {}, Active: {}, Role: {}", username, user.getIsActive(), user.getRole().getName());
+        logger.debug("User found: {}, Active: {}, Role: {}", username, user.getIsActive(), user.getRole().getName());
         
         return new org.springframework.security.core.userdetails.User(
                 user.getUsername(),
@@ -53,7 +53,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         if (!roleName.startsWith("ROLE_")) {
             roleName = "ROLE_" + roleName;
         }
-        logger.info("Granting authority: {}", roleName);
+        logger.debug("Granting authority: {}", roleName);
         return Collections.singletonList(new SimpleGrantedAuthority(roleName));
     }
 }
@@ -0,0 +1,310 @@
+package com.vehicle.spareparts.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit Log Writer
+ * Write-behind pipeline for audit_logs. Callers append to a bounded buffer and
+ * a background thread inserts the rows as JDBC batches, flushing when a batch
+ * is full or the flush interval has passed.
+ *
+ * Rows that cannot be written (database down, buffer full) are appended to a
+ * local spill file and replayed once the database accepts writes again.
+ * Each spilled row carries a key stored in audit_logs.spill_key, so a replay
+ * interrupted part way can be repeated without inserting any row twice.
+ * Shutdown drains the buffer before the application context closes.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_logs (user_id, action, entity_type, entity_id, old_value, new_value, ip_address, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String REPLAY_SQL =
+            "INSERT INTO audit_logs (user_id, action, entity_type, entity_id, old_value, new_value, ip_address, created_at, spill_key) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE spill_key = spill_key";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${audit.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${audit.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${audit.spill-file:audit-spill.ndjson}")
+    private String spillFileName;
+
+    private BlockingQueue<AuditRecord> buffer;
+    private Path spillFile;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final Object spillLock = new Object();
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public AuditLogWriter(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        spillFile = Paths.get(spillFileName).toAbsolutePath();
+        running = true;
+        flusher = new Thread(this::runFlusher, "audit-log-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queue an audit row. Never blocks; spills to disk if the buffer is full.
+     */
+    public void append(AuditRecord record) {
+        if (!running || !buffer.offer(record)) {
+            spill(List.of(record));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything still buffered goes to the database, or to the spill file
+        List<AuditRecord> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            write(remaining.subList(from, Math.min(remaining.size(), from + batchSize)));
+        }
+    }
+
+    private void runFlusher() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AuditRecord first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replaySpillFile();
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    AuditRecord next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if (write(batch)) {
+                    replaySpillFile();
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!batch.isEmpty()) {
+                    spill(batch);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Insert one batch; on failure spill it and report false
+     */
+    private boolean write(List<AuditRecord> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        try {
+            insert(batch);
+            return true;
+        } catch (DataAccessException e) {
+            logger.warn("Audit log batch insert failed, spilling {} rows: {}", batch.size(), e.getMessage());
+            spill(batch);
+            return false;
+        }
+    }
+
+    private void insert(List<AuditRecord> batch) {
+        insert(batch, null);
+    }
+
+    /**
+     * Insert a batch in one transaction, so a failed batch leaves no rows behind.
+     * Replayed rows pass their spill keys and are skipped if already present.
+     */
+    private void insert(List<AuditRecord> batch, List<String> spillKeys) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                spillKeys == null ? INSERT_SQL : REPLAY_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AuditRecord record = batch.get(i);
+                if (record.userId() != null) {
+                    ps.setLong(1, record.userId());
+                } else {
+                    ps.setNull(1, Types.BIGINT);
+                }
+                ps.setString(2, record.action());
+                ps.setString(3, record.entityType());
+                if (record.entityId() != null) {
+                    ps.setLong(4, record.entityId());
+                } else {
+                    ps.setNull(4, Types.BIGINT);
+                }
+                ps.setString(5, record.oldValue());
+                ps.setString(6, record.newValue());
+                ps.setString(7, record.ipAddress());
+                ps.setTimestamp(8, Timestamp.valueOf(record.createdAt()));
+                if (spillKeys != null) {
+                    ps.setString(9, spillKeys.get(i));
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        }));
+    }
+
+    private void spill(List<AuditRecord> records) {
+        synchronized (spillLock) {
+            try (OutputStream out = Files.newOutputStream(spillFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC)) {
+                StringBuilder lines = new StringBuilder();
+                for (AuditRecord record : records) {
+                    SpilledRow row = new SpilledRow(UUID.randomUUID().toString(), record);
+                    lines.append(objectMapper.writeValueAsString(row)).append('\n');
+                }
+                out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                logger.error("Could not spill {} audit rows to {}: {}", records.size(), spillFile, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Move spilled rows back into the database. The file is renamed first so
+     * new spills during the replay go to a fresh file.
+     */
+    private void replaySpillFile() {
+        Path replaying = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+        try {
+            synchronized (spillLock) {
+                if (!Files.exists(replaying)) {
+                    if (!Files.exists(spillFile)) {
+                        return;
+                    }
+                    Files.move(spillFile, replaying, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            List<AuditRecord> batch = new ArrayList<>(batchSize);
+            List<String> keys = new ArrayList<>(batchSize);
+            int replayed = 0;
+            try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        SpilledRow row = objectMapper.readValue(line, SpilledRow.class);
+                        batch.add(row.record());
+                        keys.add(row.spillKey());
+                    } catch (IOException e) {
+                        // A torn last line from a crash mid-write
+                        logger.warn("Skipping unreadable spilled audit row: {}", e.getMessage());
+                        continue;
+                    }
+                    if (batch.size() == batchSize) {
+                        insert(batch, keys);
+                        replayed += batch.size();
+                        batch.clear();
+                        keys.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                insert(batch, keys);
+                replayed += batch.size();
+            }
+            Files.delete(replaying);
+            logger.info("Replayed {} spilled audit rows", replayed);
+        } catch (DataAccessException e) {
+            // Still down; rows already inserted from this file are skipped by spill key next time
+            logger.debug("Audit spill replay deferred: {}", e.getMessage());
+        } catch (IOException e) {
+            logger.error("Audit spill replay failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One audit_logs row
+     */
+    public record AuditRecord(Long userId, String action, String entityType, Long entityId,
+                              String oldValue, String newValue, String ipAddress, LocalDateTime createdAt) {
+    }
+
+    /**
+     * A spill file line: the row and the key that makes its replay idempotent
+     */
+    private record SpilledRow(String spillKey, AuditRecord record) {
+    }
+}
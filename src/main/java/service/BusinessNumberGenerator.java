@@ -0,0 +1,140 @@
+package com.vehicle.spareparts.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Business Number Generator
+ * Issues human-readable numbers such as ORD0J5Q8ZK3M2A00F for orders,
+ * deliveries, warranties and claims.
+ *
+ * The numeric part is a Snowflake-style id: 41 bits of milliseconds since
+ * 2024-01-01, 10 bits of node id (app.node-id) and a 12 bit per-millisecond
+ * sequence, advanced with a CAS loop. It is written as fixed-width base36
+ * so numbers sort by creation time, followed by a Luhn mod 36 check digit.
+ */
+@Component
+public class BusinessNumberGenerator {
+
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int RADIX = 36;
+    private static final int BODY_LENGTH = 13; // 63 bits in base36
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    @Value("${app.node-id:0}")
+    private long nodeId;
+
+    // (timestamp << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong state = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("app.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+    }
+
+    /**
+     * Next number with the given prefix, e.g. next("ORD")
+     */
+    public String next(String prefix) {
+        String body = pad(Long.toString(nextId(), RADIX).toUpperCase());
+        return prefix + body + checkDigit(body);
+    }
+
+    /**
+     * Next raw id, unique per node and increasing
+     */
+    public long nextId() {
+        while (true) {
+            long last = state.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH;
+
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                // Same millisecond, or the clock moved back: keep counting on the last timestamp
+                next = last + 1;
+            } else {
+                // Sequence exhausted: borrow the next millisecond
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            }
+
+            if (state.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Check that a generated number has not been mistyped
+     */
+    public static boolean hasValidCheckDigit(String number) {
+        if (number == null || number.length() < BODY_LENGTH + 1) {
+            return false;
+        }
+        String tail = number.substring(number.length() - BODY_LENGTH - 1).toUpperCase();
+        String body = tail.substring(0, BODY_LENGTH);
+        for (int i = 0; i < tail.length(); i++) {
+            if (DIGITS.indexOf(tail.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return checkDigit(body) == tail.charAt(BODY_LENGTH);
+    }
+
+    /**
+     * Raw id inside a generated number, or -1 if the number is not well formed
+     */
+    public static long parseId(String number) {
+        if (!hasValidCheckDigit(number)) {
+            return -1;
+        }
+        String body = number.substring(number.length() - BODY_LENGTH - 1, number.length() - 1);
+        try {
+            return Long.parseLong(body, RADIX);
+        } catch (NumberFormatException e) {
+            return -1; // does not fit in 63 bits, so never generated
+        }
+    }
+
+    /**
+     * Prefix of a generated number, e.g. "WRN"
+     */
+    public static String prefixOf(String number) {
+        return number.substring(0, number.length() - BODY_LENGTH - 1);
+    }
+
+    private static String pad(String digits) {
+        StringBuilder sb = new StringBuilder(BODY_LENGTH);
+        for (int i = digits.length(); i < BODY_LENGTH; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    // Luhn mod N over base36 digits
+    private static char checkDigit(String body) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = body.length() - 1; i >= 0; i--) {
+            int addend = factor * DIGITS.indexOf(body.charAt(i));
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / RADIX + addend % RADIX;
+        }
+        return DIGITS.charAt((RADIX - sum % RADIX) % RADIX);
+    }
+}
@@ -3,25 +3,47 @@ package com.vehicle.spareparts.service;
 import com.vehicle.spareparts.dto.DeliveryBoyProfileUpdateRequest;
 import com.vehicle.spareparts.dto.DeliveryBoyRegisterRequest;
 import com.vehicle.spareparts.dto.DeliveryBoyResponse;
+import com.vehicle.spareparts.dto.KeysetPage;
 import com.vehicle.spareparts.entity.DeliveryBoyDetail;
 import com.vehicle.spareparts.entity.Role;
 import com.vehicle.spareparts.entity.User;
 import com.vehicle.spareparts.repository.DeliveryBoyDetailRepository;
 import com.vehicle.spareparts.repository.RoleRepository;
 import com.vehicle.spareparts.repository.UserRepository;
+import com.vehicle.spareparts.security.AuthenticatedPrincipalCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
 
 @Service
 public class DeliveryBoyService {
     
     private static final Logger logger = LoggerFactory.getLogger(DeliveryBoyService.class);
     
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    // Registration field or unique constraint -> error message
+    private static final Map<String, String> CONFLICT_MESSAGES = Map.of(
+            "USERNAME", "Username already exists!",
+            "EMAIL", "Email already exists!",
+            "VEHICLE_NUMBER", "Vehicle number already registered!",
+            "LICENSE_NUMBER", "License number already registered!",
+            "uk_users_username", "Username already exists!",
+            "uk_users_email", "Email already exists!",
+            "uk_delivery_boy_vehicle_number", "Vehicle number already registered!",
+            "uk_delivery_boy_license_number", "License number already registered!");
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -34,26 +56,20 @@ public class DeliveryBoyService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private AuthenticatedPrincipalCache principalCache;
+    
+    @Autowired
+    private RiderSpatialIndex riderSpatialIndex;
+    
     // Register a new delivery boy
+    @Transactional
     public DeliveryBoyResponse registerDeliveryBoy(DeliveryBoyRegisterRequest request) {
-        // Check if username already exists
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username already exists!");
-        }
-        
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists!");
-        }
-        
-        // Check if vehicle number already exists
-        if (deliveryBoyDetailRepository.existsByVehicleNumber(request.getVehicleNumber())) {
-            throw new RuntimeException("Vehicle number already registered!");
-        }
-        
-        // Check if license number already exists
-        if (deliveryBoyDetailRepository.existsByLicenseNumber(request.getLicenseNumber())) {
-            throw new RuntimeException("License number already registered!");
+        // Check username, email, vehicle and license number in one query
+        List<String> taken = deliveryBoyDetailRepository.findTakenRegistrationFields(request.getUsername(),
+                request.getEmail(), request.getVehicleNumber(), request.getLicenseNumber());
+        if (!taken.isEmpty()) {
+            throw new RuntimeException(CONFLICT_MESSAGES.get(taken.get(0)));
         }
         
         // Get DELIVERY_STAFF role
@@ -71,20 +87,23 @@ public class DeliveryBoyService {
         user.setRole(deliveryRole);
         user.setIsActive(true);
         
-        User savedUser = userRepository.save(user);
-        
         // Create delivery boy details
         DeliveryBoyDetail deliveryBoyDetail = new DeliveryBoyDetail();
-        deliveryBoyDetail.setUser(savedUser);
         deliveryBoyDetail.setVehicleMake(request.getVehicleMake());
         deliveryBoyDetail.setVehicleModel(request.getVehicleModel());
         deliveryBoyDetail.setVehicleNumber(request.getVehicleNumber());
         deliveryBoyDetail.setLicenseNumber(request.getLicenseNumber());
         deliveryBoyDetail.setDrivingExperience(request.getDrivingExperience());
         
-        DeliveryBoyDetail savedDetail = deliveryBoyDetailRepository.save(deliveryBoyDetail);
-        
-        return mapToResponse(savedUser, savedDetail);
+        try {
+            User savedUser = userRepository.save(user);
+            deliveryBoyDetail.setUser(savedUser);
+            DeliveryBoyDetail savedDetail = deliveryBoyDetailRepository.saveAndFlush(deliveryBoyDetail);
+            return mapToResponse(savedUser, savedDetail);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent registration took one of the values after the check
+            throw new RuntimeException(conflictMessage(e), e);
+        }
     }
     
     // Get delivery boy by ID
@@ -98,17 +117,40 @@ public class DeliveryBoyService {
         return mapToResponse(user, detail);
     }
     
-    // Get all delivery boys
+    // Get all delivery boys ordered by id, read in pages of MAX_PAGE_SIZE
+    @Transactional(readOnly = true)
     public List<DeliveryBoyResponse> getAllDeliveryBoys() {
         logger.info("Fetching all delivery boys");
+        List<DeliveryBoyResponse> deliveryBoys = new ArrayList<>();
+        long afterId = 0;
+        List<DeliveryBoyResponse> page;
+        do {
+            page = deliveryBoyDetailRepository.findRoster(afterId, PageRequest.of(0, MAX_PAGE_SIZE));
+            deliveryBoys.addAll(page);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == MAX_PAGE_SIZE);
+        return deliveryBoys;
+    }
+    
+    // Get delivery boys ordered by id, one page at a time; cursor is the last id of the previous page
+    @Transactional(readOnly = true)
+    public KeysetPage<DeliveryBoyResponse> getAllDeliveryBoys(String cursor, int size) {
+        logger.info("Fetching delivery boys after {}", cursor);
+        long afterId;
+        try {
+            afterId = cursor == null || cursor.isBlank() ? 0 : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
         try {
-            List<User> deliveryUsers = userRepository.findByRoleName("DELIVERY_STAFF");
-            logger.info("Found {} users with DELIVERY_STAFF role", deliveryUsers.size());
-            return deliveryUsers.stream().map(user -> {
-                DeliveryBoyDetail detail = deliveryBoyDetailRepository.findByUserId(user.getId())
-                        .orElse(null);
-                return mapToResponse(user, detail);
-            }).collect(Collectors.toList());
+            List<DeliveryBoyResponse> deliveryBoys = deliveryBoyDetailRepository.findRoster(afterId, PageRequest.of(0, limit));
+            String nextCursor = deliveryBoys.size() == limit
+                    ? String.valueOf(deliveryBoys.get(deliveryBoys.size() - 1).getId())
+                    : null;
+            return new KeysetPage<>(deliveryBoys, nextCursor);
         } catch (Exception e) {
             logger.error("Error fetching delivery boys", e);
             throw e;
@@ -142,12 +184,15 @@ public class DeliveryBoyService {
     }
     
     // Deactivate delivery boy
+    @Transactional
     public DeliveryBoyResponse deactivateDeliveryBoy(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Delivery boy not found with id: " + id));
         
         user.setIsActive(false);
         User updatedUser = userRepository.save(user);
+        afterCommit(() -> principalCache.invalidateUser(user.getUsername()));
+        riderSpatialIndex.deactivate(id);
         
         DeliveryBoyDetail detail = deliveryBoyDetailRepository.findByUserId(id)
                 .orElseThrow(() -> new RuntimeException("Delivery boy details not found for user id: " + id));
@@ -156,12 +201,15 @@ public class DeliveryBoyService {
     }
     
     // Activate delivery boy
+    @Transactional
     public DeliveryBoyResponse activateDeliveryBoy(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Delivery boy not found with id: " + id));
         
         user.setIsActive(true);
         User updatedUser = userRepository.save(user);
+        afterCommit(() -> principalCache.invalidateUser(user.getUsername()));
+        riderSpatialIndex.activate(id);
         
         DeliveryBoyDetail detail = deliveryBoyDetailRepository.findByUserId(id)
                 .orElseThrow(() -> new RuntimeException("Delivery boy details not found for user id: " + id));
@@ -169,6 +217,34 @@ public class DeliveryBoyService {
         return mapToResponse(updatedUser, detail);
     }
     
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    /**
+     * Message for a unique key violation, matched by constraint name.
+     * UniqueIndexMigration renames the generated indexes of older databases,
+     * so the named constraint is the one MySQL reports.
+     */
+    private static String conflictMessage(DataIntegrityViolationException e) {
+        String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, String> entry : CONFLICT_MESSAGES.entrySet()) {
+            if (entry.getKey().startsWith("uk_") && cause.contains(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return "Delivery boy could not be registered: duplicate data";
+    }
+    
     // Helper method to map entities to response DTO
     private DeliveryBoyResponse mapToResponse(User user, DeliveryBoyDetail detail) {
         DeliveryBoyResponse response = new DeliveryBoyResponse();
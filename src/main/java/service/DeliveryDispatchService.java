@@ -0,0 +1,226 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.dto.PendingDelivery;
+import com.vehicle.spareparts.dto.StaffWorkload;
+import com.vehicle.spareparts.repository.DeliveryRepository;
+import com.vehicle.spareparts.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Delivery Dispatch Service
+ * Periodically assigns unassigned PENDING deliveries to active
+ * DELIVERY_STAFF users in bulk.
+ *
+ * Each cycle reads the open workload per rider once, then works from
+ * in-memory counters: deliveries are grouped by address cluster (postal
+ * code, else the last address segment) and handed out in chunks to the
+ * least-loaded rider, up to delivery.dispatch.max-per-rider open deliveries
+ * each. Assignments are written as one bulk UPDATE per rider inside a single
+ * transaction per cycle. The UPDATE only touches rows that are still PENDING
+ * and unassigned, so a manual assignment made meanwhile is never overwritten.
+ */
+@Component
+public class DeliveryDispatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryDispatchService.class);
+
+    private static final Pattern POSTAL_CODE = Pattern.compile("\\b\\d{5,6}\\b");
+    private static final int MAX_IDS_PER_UPDATE = 1000;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${delivery.dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${delivery.dispatch.max-per-cycle:5000}")
+    private int maxPerCycle;
+
+    @Value("${delivery.dispatch.max-per-rider:25}")
+    private int maxPerRider;
+
+    @Value("${delivery.dispatch.cluster-chunk:5}")
+    private int clusterChunk;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongAdder cycles = new LongAdder();
+    private final LongAdder assigned = new LongAdder();
+    private final LongAdder totalCycleMs = new LongAdder();
+    private volatile long lastCycleMs;
+    private volatile Map<String, Object> lastCycle = Map.of();
+
+    @Autowired
+    public DeliveryDispatchService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.dispatch.interval-ms:30000}")
+    public void scheduledDispatch() {
+        if (enabled) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Run one dispatch cycle and return its summary
+     */
+    public synchronized Map<String, Object> dispatch() {
+        long start = System.nanoTime();
+        CycleResult result = transactionTemplate.execute(status -> assignPending());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        cycles.increment();
+        assigned.add(result.assigned());
+        totalCycleMs.add(elapsedMs);
+        lastCycleMs = elapsedMs;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("pending", result.pending());
+        summary.put("assigned", result.assigned());
+        summary.put("unassigned", result.pending() - result.assigned());
+        summary.put("riders", result.riders());
+        summary.put("clusters", result.clusters());
+        summary.put("durationMs", elapsedMs);
+        summary.put("finishedAt", LocalDateTime.now());
+        lastCycle = summary;
+
+        if (result.pending() > 0) {
+            logger.info("Dispatch cycle assigned {} of {} pending deliveries to {} riders in {} ms",
+                    result.assigned(), result.pending(), result.riders(), elapsedMs);
+        }
+        return summary;
+    }
+
+    /**
+     * Cycle counters and the last cycle's summary
+     */
+    public Map<String, Object> getStatistics() {
+        long cycleCount = cycles.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("cycles", cycleCount);
+        stats.put("assigned", assigned.sum());
+        stats.put("lastCycleMs", lastCycleMs);
+        stats.put("averageCycleMs", cycleCount == 0 ? 0 : totalCycleMs.sum() / cycleCount);
+        stats.put("lastCycle", lastCycle);
+        return stats;
+    }
+
+    private CycleResult assignPending() {
+        List<PendingDelivery> pending = deliveryRepository.findUnassignedPending(PageRequest.of(0, maxPerCycle));
+        List<Long> staffIds = userRepository.findActiveUserIdsByRole("DELIVERY_STAFF");
+        if (pending.isEmpty() || staffIds.isEmpty()) {
+            return new CycleResult(pending.size(), 0, 0, 0);
+        }
+
+        Map<Long, Rider> riders = new HashMap<>();
+        for (Long staffId : staffIds) {
+            riders.put(staffId, new Rider(staffId));
+        }
+        for (StaffWorkload row : deliveryRepository.countOpenByStaff()) {
+            Rider rider = riders.get(row.getStaffId());
+            if (rider != null) {
+                rider.load = row.getTotal().intValue();
+            }
+        }
+        PriorityQueue<Rider> leastLoaded = new PriorityQueue<>(
+                Comparator.comparingInt((Rider r) -> r.load).thenComparing(r -> r.staffId));
+        leastLoaded.addAll(riders.values());
+
+        // Oldest delivery first decides cluster order
+        Map<String, List<Long>> clusters = new LinkedHashMap<>();
+        for (PendingDelivery delivery : pending) {
+            clusters.computeIfAbsent(clusterKey(delivery.getDeliveryAddress()), k -> new ArrayList<>())
+                    .add(delivery.getId());
+        }
+
+        dispatching:
+        for (List<Long> cluster : clusters.values()) {
+            int next = 0;
+            while (next < cluster.size()) {
+                Rider rider = leastLoaded.poll();
+                if (rider.load >= maxPerRider) {
+                    leastLoaded.add(rider);
+                    break dispatching; // every rider is at capacity
+                }
+                int take = Math.min(Math.min(clusterChunk, maxPerRider - rider.load), cluster.size() - next);
+                rider.assigned.addAll(cluster.subList(next, next + take));
+                rider.load += take;
+                next += take;
+                leastLoaded.add(rider);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = 0;
+        int used = 0;
+        for (Rider rider : riders.values()) {
+            if (rider.assigned.isEmpty()) {
+                continue;
+            }
+            used++;
+            for (int from = 0; from < rider.assigned.size(); from += MAX_IDS_PER_UPDATE) {
+                List<Long> ids = rider.assigned.subList(from, Math.min(rider.assigned.size(), from + MAX_IDS_PER_UPDATE));
+                updated += deliveryRepository.assignUnassigned(ids, userRepository.getReferenceById(rider.staffId), now);
+            }
+        }
+        return new CycleResult(pending.size(), updated, used, clusters.size());
+    }
+
+    /**
+     * Postal code if the address has one, otherwise its last comma-separated part
+     */
+    static String clusterKey(String address) {
+        if (address == null || address.isBlank()) {
+            return "";
+        }
+        Matcher matcher = POSTAL_CODE.matcher(address);
+        String postalCode = null;
+        while (matcher.find()) {
+            postalCode = matcher.group();
+        }
+        if (postalCode != null) {
+            return postalCode;
+        }
+        String[] parts = address.split(",");
+        return parts[parts.length - 1].trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Rider {
+        private final Long staffId;
+        private final List<Long> assigned = new ArrayList<>();
+        private int load;
+
+        private Rider(Long staffId) {
+            this.staffId = staffId;
+        }
+    }
+
+    private record CycleResult(int pending, int assigned, int riders, int clusters) {
+    }
+}
@@ -1,5 +1,9 @@
 package com.vehicle.spareparts.service;
 
+import com.vehicle.spareparts.dto.DeliverySummary;
+import com.vehicle.spareparts.dto.KeysetCursor;
+import com.vehicle.spareparts.dto.KeysetPage;
+import com.vehicle.spareparts.dto.NearbyRider;
 import com.vehicle.spareparts.entity.Delivery;
 import com.vehicle.spareparts.entity.Order;
 import com.vehicle.spareparts.entity.User;
@@ -7,10 +11,12 @@ import com.vehicle.spareparts.repository.DeliveryRepository;
 import com.vehicle.spareparts.repository.OrderRepository;
 import com.vehicle.spareparts.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 public class DeliveryService {
@@ -24,27 +30,68 @@ public class DeliveryService {
     @Autowired
     private OrderRepository orderRepository;
     
+    @Autowired
+    private WarrantyService warrantyService;
+    
+    @Autowired
+    private SalesAggregateStore salesAggregateStore;
+    
+    @Autowired
+    private RiderLocationService riderLocationService;
+    
+    @Autowired
+    private RiderSpatialIndex riderSpatialIndex;
+    
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    // All deliveries, newest first, one page at a time
     @Transactional(readOnly = true)
-    public List<Delivery> getAllDeliveries() {
-        return deliveryRepository.findAll();
+    public KeysetPage<DeliverySummary> getAllDeliveries(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = pageSize(size);
+        return page(deliveryRepository.findSummaries(after.timestamp(), after.id(), PageRequest.of(0, limit)),
+                limit, DeliverySummary::getCreatedAt);
     }
     
     @Transactional(readOnly = true)
     public Delivery getDelivery(Long id) {
-        return deliveryRepository.findById(id)
+        return deliveryRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new RuntimeException("Delivery not found"));
     }
     
+    // A rider's deliveries, most recently assigned first
     @Transactional(readOnly = true)
-    public List<Delivery> getDeliveriesByStaff(String username) {
+    public KeysetPage<DeliverySummary> getDeliveriesByStaff(String username, String cursor, int size) {
         User staff = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return deliveryRepository.findDeliveriesByStaff(staff.getId());
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = pageSize(size);
+        return page(deliveryRepository.findSummariesByStaff(staff.getId(), after.timestamp(), after.id(),
+                PageRequest.of(0, limit)), limit, DeliverySummary::getAssignedAt);
     }
     
+    // Deliveries in a status, newest first; keyed on creation time because
+    // unassigned PENDING deliveries have no assignedAt
     @Transactional(readOnly = true)
-    public List<Delivery> getDeliveriesByStatus(String status) {
-        return deliveryRepository.findByStatus(status);
+    public KeysetPage<DeliverySummary> getDeliveriesByStatus(String status, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = pageSize(size);
+        return page(deliveryRepository.findSummariesByStatus(status, after.timestamp(), after.id(),
+                PageRequest.of(0, limit)), limit, DeliverySummary::getCreatedAt);
+    }
+    
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+    
+    private static KeysetPage<DeliverySummary> page(List<DeliverySummary> deliveries, int limit,
+                                                    Function<DeliverySummary, LocalDateTime> key) {
+        String nextCursor = null;
+        if (deliveries.size() == limit) {
+            DeliverySummary last = deliveries.get(deliveries.size() - 1);
+            nextCursor = new KeysetCursor(key.apply(last), last.getId()).toString();
+        }
+        return new KeysetPage<>(deliveries, nextCursor);
     }
     
     @Transactional
@@ -65,10 +112,21 @@ public class DeliveryService {
             //  Update Order status to DELIVERED when delivery is completed
             Order order = delivery.getOrder();
             if (order != null && !"DELIVERED".equals(order.getStatus())) {
+                salesAggregateStore.recordStatusChange(order.getStatus(), "DELIVERED");
                 order.setStatus("DELIVERED");
                 order .setDeliveredAt(LocalDateTime.now());
                 orderRepository.save(order);
             }
+            
+            // Issue warranties for the delivered items; a no-op if already issued
+            if (order != null) {
+                warrantyService.issueWarrantiesForOrder(order);
+            }
+        }
+        
+        // Stop tracking once the delivery is finished
+        if ("DELIVERED".equals(status) || "FAILED".equals(status)) {
+            riderLocationService.forget(id);
         }
         
         return deliveryRepository.save(delivery);
@@ -85,13 +143,37 @@ public class DeliveryService {
         if (!"DELIVERY_STAFF".equals(staff.getRole().getName())) {
             throw new RuntimeException("User is not a delivery staff");
         }
+        if (!Boolean.TRUE.equals(staff.getIsActive())) {
+            throw new RuntimeException("Delivery staff is not active");
+        }
         
         delivery.setDeliveryStaff(staff);
         delivery.setAssignedAt(LocalDateTime.now());
+        riderLocationService.forget(id);
         
         return deliveryRepository.save(delivery);
     }
     
+    // Active riders nearest to a point (e.g. the pickup location), from memory
+    public List<NearbyRider> findNearestStaff(double latitude, double longitude, int count) {
+        return riderSpatialIndex.nearest(latitude, longitude, count);
+    }
+    
+    // Active riders within a radius of a point, nearest first
+    public List<NearbyRider> findStaffWithin(double latitude, double longitude, double radiusMeters) {
+        return riderSpatialIndex.within(latitude, longitude, radiusMeters);
+    }
+    
+    // Assign the rider nearest to the pickup location
+    @Transactional
+    public Delivery assignNearestStaff(Long id, double latitude, double longitude) {
+        List<NearbyRider> nearest = riderSpatialIndex.nearest(latitude, longitude, 1);
+        if (nearest.isEmpty()) {
+            throw new RuntimeException("No active delivery staff near this location");
+        }
+        return assignDeliveryStaff(id, nearest.get(0).getRiderId());
+    }
+    
     @Transactional
     public Delivery updateDeliveryDetails(Long id, Long staffId, String address) {
         Delivery delivery = deliveryRepository.findById(id)
@@ -105,11 +187,15 @@ public class DeliveryService {
             if (!"DELIVERY_STAFF".equals(staff.getRole().getName())) {
                 throw new RuntimeException("User is not a delivery staff");
             }
+            if (!Boolean.TRUE.equals(staff.getIsActive())) {
+                throw new RuntimeException("Delivery staff is not active");
+            }
             
             delivery.setDeliveryStaff(staff);
             if (delivery.getAssignedAt() == null) {
                 delivery.setAssignedAt(LocalDateTime.now());
             }
+            riderLocationService.forget(id);
         }
         
         // Update delivery address if provided
@@ -131,5 +217,6 @@ public class DeliveryService {
         }
         
         deliveryRepository.delete(delivery);
+        riderLocationService.forget(id);
     }
 }
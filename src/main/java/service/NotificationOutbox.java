@@ -0,0 +1,34 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.entity.OutboxMessage;
+import com.vehicle.spareparts.repository.OutboxMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Notification Outbox
+ * Records outgoing notifications in notification_outbox as part of the
+ * caller's transaction, so a message exists exactly when the change that
+ * caused it is committed. NotificationRelay delivers them.
+ */
+@Component
+public class NotificationOutbox {
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Transactional
+    public void enqueue(String channel, String recipient, String subject, String body,
+                        String eventType, String aggregateType, Long aggregateId) {
+        OutboxMessage message = new OutboxMessage();
+        message.setChannel(channel);
+        message.setRecipient(recipient);
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setEventType(eventType);
+        message.setAggregateType(aggregateType);
+        message.setAggregateId(aggregateId);
+        outboxMessageRepository.save(message);
+    }
+}
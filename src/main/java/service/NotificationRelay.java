@@ -0,0 +1,259 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.entity.OutboxMessage;
+import com.vehicle.spareparts.repository.OutboxMessageRepository;
+import com.vehicle.spareparts.strategy.notification.NotificationChannel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Notification Relay
+ * Drains notification_outbox in batches and hands each message to the
+ * NotificationChannel named by its channel column, using a worker pool.
+ *
+ * A batch is claimed by pushing its next_attempt_at out by a lease, so a
+ * relay that dies mid-batch only delays those messages. Failed sends are
+ * retried with exponential backoff; after notification.relay.max-attempts
+ * the message is dead-lettered (status DEAD) and kept for inspection.
+ * Outcomes are written with bulk updates, and SENT messages are purged once
+ * they are older than notification.outbox.retention-days.
+ */
+@Component
+public class NotificationRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRelay.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final String RECORD_FAILURE_SQL =
+            "UPDATE notification_outbox SET status = ?, attempts = ?, last_error = ?, next_attempt_at = ? WHERE id = ?";
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${notification.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${notification.relay.threads:4}")
+    private int threads;
+
+    @Value("${notification.relay.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.relay.backoff-ms:1000}")
+    private long backoffMs;
+
+    @Value("${notification.relay.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${notification.relay.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${notification.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${notification.outbox.purge-batch-size:5000}")
+    private int purgeBatchSize;
+
+    private final Map<String, NotificationChannel> channels = new HashMap<>();
+    private final TransactionTemplate transactionTemplate;
+    private ExecutorService senders;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dead = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile double lastBatchPerSecond;
+
+    @Autowired
+    public NotificationRelay(List<NotificationChannel> notificationChannels, PlatformTransactionManager transactionManager) {
+        // Auto-register all notification channels
+        for (NotificationChannel channel : notificationChannels) {
+            channels.put(channel.getChannelName().toUpperCase(), channel);
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger count = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(threads, r -> new Thread(r, "notification-relay-" + count.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        senders.shutdown();
+    }
+
+    /**
+     * Deliver due messages until the outbox has no full batch left
+     */
+    @Scheduled(fixedDelayString = "${notification.relay.poll-interval-ms:500}")
+    public void relay() {
+        List<OutboxMessage> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Nightly: delete SENT messages past the retention period, in chunks so
+     * no single statement holds locks on the whole backlog
+     */
+    @Scheduled(cron = "${notification.outbox.purge-cron:0 45 3 * * *}")
+    public void purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> outboxMessageRepository.deleteSentBefore(cutoff, purgeBatchSize));
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        if (purged > 0) {
+            logger.info("Purged {} sent notifications older than {} days", purged, retentionDays);
+        }
+    }
+
+    /**
+     * Throughput, retry/dead-letter counts and outbox lag
+     */
+    public Map<String, Object> getStatistics() {
+        LocalDateTime oldestPending = outboxMessageRepository.findOldestPendingCreatedAt();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sent", sent.sum());
+        stats.put("retried", retried.sum());
+        stats.put("deadLettered", dead.sum());
+        stats.put("batches", batches.sum());
+        stats.put("lastBatchMessagesPerSecond", lastBatchPerSecond);
+        stats.put("pending", outboxMessageRepository.countByStatus("PENDING"));
+        stats.put("dead", outboxMessageRepository.countByStatus("DEAD"));
+        stats.put("lagMs", oldestPending == null ? 0 : Duration.between(oldestPending, LocalDateTime.now()).toMillis());
+        return stats;
+    }
+
+    private List<OutboxMessage> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxMessage> due = outboxMessageRepository.findDueForDelivery(now, PageRequest.of(0, batchSize));
+            LocalDateTime leaseUntil = now.plusNanos(leaseMs * 1_000_000);
+            for (OutboxMessage message : due) {
+                message.setNextAttemptAt(leaseUntil);
+            }
+            return due;
+        });
+    }
+
+    private void deliver(List<OutboxMessage> batch) {
+        long start = System.nanoTime();
+
+        List<Callable<String>> sends = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            sends.add(() -> send(message));
+        }
+
+        List<String> errors = new ArrayList<>(batch.size());
+        try {
+            for (Future<String> result : senders.invokeAll(sends)) {
+                try {
+                    errors.add(result.get());
+                } catch (ExecutionException e) {
+                    errors.add(String.valueOf(e.getCause().getMessage()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return; // lease expires and the batch is picked up again
+        }
+
+        // The batch is detached, so write outcomes directly instead of merging each entity:
+        // one UPDATE ... IN for the sent messages, one JDBC batch for failures
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        List<Object[]> failures = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxMessage message = batch.get(i);
+            String error = errors.get(i);
+            int attempts = message.getAttempts() + 1;
+            if (error == null) {
+                sentIds.add(message.getId());
+                continue;
+            }
+            String lastError = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+            if (attempts >= maxAttempts) {
+                failures.add(new Object[]{"DEAD", attempts, lastError, message.getNextAttemptAt(), message.getId()});
+                logger.warn("Notification {} dead-lettered after {} attempts: {}", message.getId(), attempts, error);
+            } else {
+                long delay = Math.min(maxBackoffMs, backoffMs << Math.min(20, attempts - 1));
+                failures.add(new Object[]{"PENDING", attempts, lastError, now.plusNanos(delay * 1_000_000), message.getId()});
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxMessageRepository.markSent(sentIds, now);
+            }
+            if (!failures.isEmpty()) {
+                jdbcTemplate.batchUpdate(RECORD_FAILURE_SQL, failures);
+            }
+        });
+        sent.add(sentIds.size());
+        for (Object[] failure : failures) {
+            if ("DEAD".equals(failure[0])) {
+                dead.increment();
+            } else {
+                retried.increment();
+            }
+        }
+
+        batches.increment();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        lastBatchPerSecond = seconds > 0 ? batch.size() / seconds : 0;
+    }
+
+    /**
+     * Send one message; returns null on success or the error text
+     */
+    private String send(OutboxMessage message) {
+        NotificationChannel channel = channels.get(message.getChannel());
+        if (channel == null) {
+            return "No channel registered for " + message.getChannel();
+        }
+        try {
+            channel.send(message.getRecipient(), message.getSubject(), message.getBody());
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+    }
+}
@@ -4,18 +4,20 @@ import com.vehicle.spareparts.dto.*;
 import com.vehicle.spareparts.entity.*;
 import com.vehicle.spareparts.repository.*;
 import com.vehicle.spareparts.strategy.payment.PaymentContext;
+import com.vehicle.spareparts.strategy.payment.PaymentStrategy;
 import com.vehicle.spareparts.strategy.delivery.DeliveryContext;
 import com.vehicle.spareparts.observer.OrderSubject;
-import com.vehicle.spareparts.observer.WarrantySubject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,11 +39,23 @@ public class OrderService {
     private DeliveryRepository deliveryRepository;
     
     @Autowired
-    private WarrantyRepository warrantyRepository;
+    private StockReservationLedger stockReservationLedger;
+    
+    @Autowired
+    private SalesAggregateStore salesAggregateStore;
+    
+    @Autowired
+    private BusinessNumberGenerator businessNumberGenerator;
+    
+    @Autowired
+    private WarrantyService warrantyService;
 
     // STRATEGY PATTERN - Payment Processing
     @Autowired
     private PaymentContext paymentContext;
+    
+    @Autowired
+    private PaymentProcessor paymentProcessor;
 
     // STRATEGY PATTERN - Delivery Management
     @Autowired
@@ -51,17 +65,13 @@ public class OrderService {
     @Autowired
     private OrderSubject orderSubject;
 
-    // OBSERVER PATTERN - Warranty Notifications
-    @Autowired
-    private WarrantySubject warrantySubject;
-
     @Transactional
     public OrderResponse createOrder(OrderRequest request, String username) {
         User customer = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
         
         Order order = new Order();
-        order.setOrderNumber("ORD" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        order.setOrderNumber(businessNumberGenerator.next("ORD"));
         order.setCustomer(customer);
         order.setShippingAddress(request.getShippingAddress());
         order.setPaymentMethod(request.getPaymentMethod());
@@ -71,13 +81,19 @@ public class OrderService {
         
         BigDecimal totalAmount = BigDecimal.ZERO;
         List<OrderItem> orderItems = new ArrayList<>();
+        Map<Long, Integer> quantities = new HashMap<>();
+        
+        // Resolve every part of the cart in one query
+        Set<Long> partIds = request.getItems().stream()
+                .map(OrderItemRequest::getSparePartId)
+                .collect(Collectors.toSet());
+        Map<Long, SparePart> parts = sparePartRepository.findAllById(partIds).stream()
+                .collect(Collectors.toMap(SparePart::getId, Function.identity()));
         
         for (OrderItemRequest itemRequest : request.getItems()) {
-            SparePart sparePart = sparePartRepository.findById(itemRequest.getSparePartId())
-                    .orElseThrow(() -> new RuntimeException("Spare part not found: " + itemRequest.getSparePartId()));
-            
-            if (sparePart.getStockQuantity() < itemRequest.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for: " + sparePart.getPartName());
+            SparePart sparePart = parts.get(itemRequest.getSparePartId());
+            if (sparePart == null) {
+                throw new RuntimeException("Spare part not found: " + itemRequest.getSparePartId());
             }
             
             OrderItem orderItem = new OrderItem();
@@ -91,23 +107,31 @@ public class OrderService {
             orderItems.add(orderItem);
             totalAmount = totalAmount.add(orderItem.getSubtotal());
             
-            // Update stock
-            sparePart.setStockQuantity(sparePart.getStockQuantity() - itemRequest.getQuantity());
-            sparePartRepository.save(sparePart);
+            quantities.merge(sparePart.getId(), itemRequest.getQuantity(), Integer::sum);
         }
         
         order.setTotalAmount(totalAmount);
+        
+        // STRATEGY PATTERN - Validate payment details up front; the payment itself runs after commit
+        PaymentStrategy paymentStrategy = paymentContext.getStrategy(request.getPaymentMethod());
+        if (!paymentStrategy.validatePayment(order)) {
+            throw new IllegalArgumentException("Invalid payment details for " + request.getPaymentMethod());
+        }
+        
+        // Reserve stock for the whole order in one step; released again if this transaction rolls back
+        try {
+            stockReservationLedger.reserve(quantities);
+        } catch (StockReservationLedger.InsufficientStockException e) {
+            throw new RuntimeException("Insufficient stock for: " + parts.get(e.getPartId()).getPartName());
+        }
+        
         order.setOrderItems(orderItems);
         
         Order savedOrder = orderRepository.save(order);
+        salesAggregateStore.recordOrderCreated(savedOrder.getOrderDate(), totalAmount, savedOrder.getStatus());
 
-        // STRATEGY PATTERN - Process Payment
-        try {
-            String paymentResult = paymentContext.executePayment(savedOrder);
-            System.out.println("Payment Result: " + paymentResult);
-        } catch (Exception e) {
-            System.err.println("Payment processing error: " + e.getMessage());
-        }
+        // STRATEGY PATTERN - Process Payment asynchronously once the order is committed
+        paymentProcessor.submitAfterCommit(savedOrder);
 
         // OBSERVER PATTERN - Notify all observers about new order
         orderSubject.notifyObservers(savedOrder, "ORDER_CREATED");
@@ -124,7 +148,7 @@ public class OrderService {
     
     @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
-        return orderRepository.findAll().stream()
+        return orderRepository.findAllWithDetails().stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
@@ -160,6 +184,7 @@ public class OrderService {
         User storeOwner = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
+        salesAggregateStore.recordStatusChange(order.getStatus(), "APPROVED");
         order.setStatus("APPROVED");
         order.setApprovedBy(storeOwner);
         order.setApprovedAt(LocalDateTime.now());
@@ -182,11 +207,12 @@ public class OrderService {
         
         String oldStatus = order.getStatus();
         order.setStatus(status);
+        salesAggregateStore.recordStatusChange(oldStatus, status);
         Order updated = orderRepository.save(order);
 
         // AUTOMATIC WARRANTY CREATION - When order is delivered
         if ("DELIVERED".equals(status) && !"DELIVERED".equals(oldStatus)) {
-            createWarrantiesForOrder(updated);
+            warrantyService.issueWarrantiesForOrder(updated);
         }
 
         // OBSERVER PATTERN - Notify observers about status change
@@ -196,47 +222,9 @@ public class OrderService {
         return convertToResponse(updated);
     }
     
-    /**
-     * Automatically create warranties for all items in a delivered order
-     */
-    private void createWarrantiesForOrder(Order order) {
-        System.out.println("\n🛡️ CREATING WARRANTIES FOR ORDER: " + order.getOrderNumber());
-        System.out.println("=================================================");
-
-        for (OrderItem item : order.getOrderItems()) {
-            // Only create warranty if part has warranty months
-            if (item.getWarrantyMonths() != null && item.getWarrantyMonths() > 0) {
-                Warranty warranty = new Warranty();
-
-                // Generate unique warranty number
-                warranty.setWarrantyNumber("WRN" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-                warranty.setOrderItem(item);
-                warranty.setCustomer(order.getCustomer());
-                warranty.setSparePart(item.getSparePart());
-                warranty.setPurchaseDate(LocalDate.now());
-                warranty.setExpiryDate(LocalDate.now().plusMonths(item.getWarrantyMonths()));
-                warranty.setStatus("ACTIVE");
-
-                Warranty savedWarranty = warrantyRepository.save(warranty);
-
-                System.out.println("✅ WARRANTY CREATED:");
-                System.out.println("   Number: " + warranty.getWarrantyNumber());
-                System.out.println("   Part: " + item.getSparePart().getPartName());
-                System.out.println("   Period: " + item.getWarrantyMonths() + " months");
-                System.out.println("   Expires: " + warranty.getExpiryDate());
-                System.out.println("-------------------------------------------------");
-
-                // OBSERVER PATTERN - Notify customers about new warranty
-                warrantySubject.notifyObservers(savedWarranty, "WARRANTY_CREATED");
-            }
-        }
-
-        System.out.println("=================================================\n");
-    }
-
     private void createDelivery(Order order) {
         Delivery delivery = new Delivery();
-        delivery.setDeliveryNumber("DEL" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        delivery.setDeliveryNumber(businessNumberGenerator.next("DEL"));
         delivery.setOrder(order);
         delivery.setDeliveryAddress(order.getShippingAddress());
         delivery.setStatus("PENDING");
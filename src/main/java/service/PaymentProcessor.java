@@ -0,0 +1,408 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.entity.Order;
+import com.vehicle.spareparts.entity.OrderItem;
+import com.vehicle.spareparts.observer.OrderSubject;
+import com.vehicle.spareparts.repository.OrderRepository;
+import com.vehicle.spareparts.strategy.payment.PaymentContext;
+import com.vehicle.spareparts.strategy.payment.PaymentStrategy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Payment Processor
+ * Runs payment strategies after the order transaction has committed, on a
+ * bounded worker pool, so a slow gateway never holds DB connections or locks.
+ *
+ * Each attempt is limited by a per-method timeout (payment.{METHOD}.timeout-ms,
+ * falling back to payment.timeout-ms) and guarded by a per-method circuit
+ * breaker. Failed attempts are retried with exponential backoff. Every
+ * attempt for an order carries the same idempotency key, and after a failed
+ * attempt the gateway is asked whether the charge went through before
+ * retrying or cancelling, so a timed-out charge is never repeated or
+ * reversed blindly. The outcome is written back to the order in its own
+ * short transaction; a payment that finally fails cancels the order and
+ * returns its stock, and one whose outcome the gateway cannot confirm is
+ * left for manual verification. An order is only cancelled after the
+ * gateway confirmed it was not charged; while the circuit is open the
+ * payment is deferred and retried once the open window has passed.
+ *
+ * Payments that do not fit in the worker queue are parked in an overflow
+ * list that workers drain, so the committing request thread never runs a
+ * payment itself.
+ */
+@Component
+public class PaymentProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentProcessor.class);
+
+    @Autowired
+    private PaymentContext paymentContext;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockReservationLedger stockReservationLedger;
+
+    @Autowired
+    private SalesAggregateStore salesAggregateStore;
+
+    @Autowired
+    private OrderSubject orderSubject;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${payment.executor.threads:8}")
+    private int threads;
+
+    @Value("${payment.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${payment.timeout-ms:5000}")
+    private long defaultTimeoutMs;
+
+    @Value("${payment.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${payment.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    @Value("${payment.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${payment.circuit.open-ms:30000}")
+    private long openMs;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Queue<Runnable> overflow = new ConcurrentLinkedQueue<>();
+
+    private ThreadPoolExecutor workers;
+    private ExecutorService gatewayCalls;
+    private ScheduledExecutorService deferrals;
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder unverified = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+
+    @Autowired
+    public PaymentProcessor(PlatformTransactionManager transactionManager) {
+        // Outcomes may be written from an afterCommit callback whose transaction is still bound
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger workerCount = new AtomicInteger();
+        // A full queue parks the payment in the overflow list for the workers to pick up
+        workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "payment-worker-" + workerCount.incrementAndGet()),
+                (job, executor) -> {
+                    overflow.add(job);
+                    overflowed.increment();
+                });
+        AtomicInteger callCount = new AtomicInteger();
+        gatewayCalls = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "payment-gateway-" + callCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        deferrals = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "payment-deferrals");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        deferrals.shutdownNow();
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        gatewayCalls.shutdownNow();
+        if (!overflow.isEmpty()) {
+            logger.warn("{} payments were not processed before shutdown; their orders stay PENDING", overflow.size());
+        }
+    }
+
+    /**
+     * Queue payment for an order once the current transaction commits
+     */
+    public void submitAfterCommit(Order order) {
+        Order payment = paymentView(order);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    workers.execute(() -> run(payment));
+                }
+            });
+        } else {
+            workers.execute(() -> run(payment));
+        }
+    }
+
+    /**
+     * Outcome counters, queue depth and circuit state per payment method
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", workers.getQueue().size());
+        stats.put("activeWorkers", workers.getActiveCount());
+        stats.put("succeeded", succeeded.sum());
+        stats.put("failed", failed.sum());
+        stats.put("retried", retried.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("recoveredAfterFailure", recovered.sum());
+        stats.put("unverified", unverified.sum());
+        stats.put("overflowed", overflowed.sum());
+        stats.put("overflowDepth", overflow.size());
+        stats.put("deferredWhileCircuitOpen", deferred.sum());
+        Map<String, String> circuits = new HashMap<>();
+        breakers.forEach((method, breaker) -> circuits.put(method, breaker.state()));
+        stats.put("circuits", circuits);
+        return stats;
+    }
+
+    /**
+     * Process one payment, then any payments parked while the queue was full
+     */
+    private void run(Order payment) {
+        process(payment);
+        Runnable parked;
+        while ((parked = overflow.poll()) != null) {
+            parked.run();
+        }
+    }
+
+    private void process(Order payment) {
+        PaymentStrategy strategy = paymentContext.getStrategy(payment.getPaymentMethod());
+        String method = strategy.getPaymentMethodName();
+        CircuitBreaker breaker = breakers.computeIfAbsent(method, m -> new CircuitBreaker());
+        long timeoutMs = environment.getProperty("payment." + method + ".timeout-ms", Long.class, defaultTimeoutMs);
+
+        String lastError = null;
+        // Gateway's answer after the last failed attempt: charged, not charged, or null if unknown
+        Boolean charged = Boolean.FALSE;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (!breaker.allowRequest()) {
+                lastError = "circuit open for " + method;
+                if (charged != null) {
+                    // Not charged so far: try again after the open window instead of cancelling
+                    defer(payment);
+                    return;
+                }
+                break;
+            }
+            Future<String> call = gatewayCalls.submit(() -> strategy.processPayment(payment));
+            try {
+                String result = call.get(timeoutMs, TimeUnit.MILLISECONDS);
+                breaker.recordSuccess();
+                applyPaymentStatus(payment.getId(), payment.getPaymentStatus());
+                succeeded.increment();
+                logger.debug("Payment result: {}", result);
+                return;
+            } catch (TimeoutException e) {
+                call.cancel(true);
+                timedOut.increment();
+                lastError = "timed out after " + timeoutMs + " ms";
+            } catch (ExecutionException e) {
+                lastError = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lastError = "interrupted";
+                charged = null;
+                break;
+            }
+            breaker.recordFailure();
+
+            // The attempt may have gone through at the gateway; ask before retrying or cancelling
+            charged = findCharge(strategy, payment, timeoutMs);
+            if (Boolean.TRUE.equals(charged)) {
+                applyPaymentStatus(payment.getId(), payment.getPaymentStatus());
+                recovered.increment();
+                succeeded.increment();
+                return;
+            }
+
+            if (attempt < maxAttempts) {
+                retried.increment();
+                try {
+                    Thread.sleep(retryBackoffMs << (attempt - 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        if (charged == null) {
+            // Cancelling could return stock for an order that was paid
+            unverified.increment();
+            logger.warn("Payment outcome unknown for order {}, left for verification: {}",
+                    payment.getOrderNumber(), lastError);
+            applyPaymentStatus(payment.getId(), "UNVERIFIED");
+            return;
+        }
+        failed.increment();
+        logger.warn("Payment failed for order {}: {}", payment.getOrderNumber(), lastError);
+        cancelUnpaidOrder(payment.getId());
+    }
+
+    /**
+     * Process the payment again once the circuit breaker may admit calls
+     */
+    private void defer(Order payment) {
+        deferred.increment();
+        logger.info("Gateway circuit open, payment for order {} deferred by {} ms", payment.getOrderNumber(), openMs);
+        try {
+            deferrals.schedule(() -> workers.execute(() -> run(payment)), openMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Shutting down; the order stays PENDING
+            logger.warn("Could not defer payment for order {}: {}", payment.getOrderNumber(), e.getMessage());
+        }
+    }
+
+    /**
+     * Ask the gateway whether the order was charged under its idempotency
+     * key: TRUE or FALSE, or null if the gateway could not answer
+     */
+    private Boolean findCharge(PaymentStrategy strategy, Order payment, long timeoutMs) {
+        Future<String> lookup = gatewayCalls.submit(() -> strategy.findPayment(payment));
+        try {
+            return lookup.get(timeoutMs, TimeUnit.MILLISECONDS) != null;
+        } catch (TimeoutException e) {
+            lookup.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void applyPaymentStatus(Long orderId, String paymentStatus) {
+        transactionTemplate.executeWithoutResult(status ->
+                orderRepository.updatePaymentStatus(orderId, paymentStatus, LocalDateTime.now()));
+    }
+
+    private void cancelUnpaidOrder(Long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null || !"PENDING".equals(order.getStatus())) {
+                // Already moved on by staff; only record the failed payment
+                orderRepository.updatePaymentStatus(orderId, "FAILED", LocalDateTime.now());
+                return;
+            }
+
+            Map<Long, Integer> returned = new HashMap<>();
+            for (OrderItem item : order.getOrderItems()) {
+                returned.merge(item.getSparePart().getId(), -item.getQuantity(), Integer::sum);
+            }
+            stockReservationLedger.reserve(returned);
+
+            salesAggregateStore.recordStatusChange(order.getStatus(), "CANCELLED");
+            order.setPaymentStatus("FAILED");
+            order.setStatus("CANCELLED");
+            orderRepository.save(order);
+
+            orderSubject.notifyObservers(order, "ORDER_CANCELLED");
+        });
+    }
+
+    /**
+     * Detached copy holding what the payment strategies read
+     */
+    private Order paymentView(Order order) {
+        Order payment = new Order();
+        payment.setId(order.getId());
+        payment.setOrderNumber(order.getOrderNumber());
+        payment.setTotalAmount(order.getTotalAmount());
+        payment.setPaymentMethod(order.getPaymentMethod());
+        payment.setPaymentStatus(order.getPaymentStatus());
+        payment.setShippingAddress(order.getShippingAddress());
+        payment.setStatus(order.getStatus());
+        return payment;
+    }
+
+    /**
+     * Opens after consecutive failures; after openMs lets one trial call through
+     */
+    private class CircuitBreaker {
+
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        synchronized boolean allowRequest() {
+            if (consecutiveFailures < failureThreshold) {
+                return true;
+            }
+            if (!trialInFlight && System.currentTimeMillis() - openedAt >= openMs) {
+                trialInFlight = true;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+
+        synchronized void recordFailure() {
+            consecutiveFailures++;
+            if (consecutiveFailures >= failureThreshold) {
+                openedAt = System.currentTimeMillis();
+            }
+            trialInFlight = false;
+        }
+
+        synchronized String state() {
+            if (consecutiveFailures < failureThreshold) {
+                return "CLOSED";
+            }
+            return System.currentTimeMillis() - openedAt >= openMs ? "HALF_OPEN" : "OPEN";
+        }
+    }
+}
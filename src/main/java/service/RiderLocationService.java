@@ -0,0 +1,383 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.cache.LongKeyedMap;
+import com.vehicle.spareparts.dto.DeliveryLocation;
+import com.vehicle.spareparts.dto.DeliveryParticipants;
+import com.vehicle.spareparts.dto.LocationPing;
+import com.vehicle.spareparts.repository.DeliveryRepository;
+import com.vehicle.spareparts.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rider Location Service
+ * Ingests batched GPS pings from riders' apps and keeps the latest position
+ * of every delivery in a LongKeyedMap, so "where is my delivery" is answered
+ * from memory.
+ *
+ * The first ping for a delivery checks once against the database that the
+ * sender is its assigned rider; the rider and customer usernames are then
+ * kept with the position, so later pings and reads need no query. Pings are
+ * down-sampled (delivery.location.min-interval-ms or min-distance-m since the
+ * last stored point) and appended to delivery_track_points by a background
+ * writer in JDBC batches. Track points that cannot be buffered or written
+ * are dropped and counted; the live position is not affected.
+ *
+ * Every accepted ping also moves the rider in RiderSpatialIndex. Pings
+ * without a delivery id come from idle riders and only do that.
+ */
+@Component
+public class RiderLocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RiderLocationService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO delivery_track_points (delivery_id, rider_id, latitude, longitude, speed, heading, recorded_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Set<String> CLOSED_STATUSES = Set.of("DELIVERED", "FAILED");
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RiderSpatialIndex riderSpatialIndex;
+
+    @Value("${delivery.location.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${delivery.location.min-interval-ms:15000}")
+    private long minIntervalMs;
+
+    @Value("${delivery.location.min-distance-m:50}")
+    private double minDistanceMeters;
+
+    @Value("${delivery.location.max-clock-skew-ms:60000}")
+    private long maxClockSkewMs;
+
+    @Value("${delivery.location.stale-after-ms:21600000}")
+    private long staleAfterMs;
+
+    @Value("${delivery.location.buffer-capacity:100000}")
+    private int bufferCapacity;
+
+    @Value("${delivery.location.write-batch-size:1000}")
+    private int writeBatchSize;
+
+    @Value("${delivery.location.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    private final LongKeyedMap<Position> positions = new LongKeyedMap<>(16_384, 64);
+    private final Map<String, Long> riderIds = new ConcurrentHashMap<>();
+
+    private BlockingQueue<TrackPoint> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        running = true;
+        writer = new Thread(this::runWriter, "rider-track-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Apply a rider's pings; returns how many were accepted and ignored.
+     * Pings for deliveries not assigned to the rider, invalid or out of
+     * order ones are ignored. Pings without a delivery id only update the
+     * rider's position in the spatial index.
+     */
+    public Map<String, Object> ingest(String username, List<LocationPing> pings) {
+        if (pings.size() > maxBatchSize) {
+            throw new RuntimeException("At most " + maxBatchSize + " pings per request");
+        }
+        long now = System.currentTimeMillis();
+        Map<Long, Position> checked = new HashMap<>();
+        int acceptedCount = 0;
+
+        for (LocationPing ping : pings) {
+            if (!isValid(ping, now)) {
+                continue;
+            }
+            if (ping.getDeliveryId() == null) {
+                Long riderId = riderIdOf(username);
+                if (riderId != null) {
+                    riderSpatialIndex.update(riderId, ping.getLatitude(), ping.getLongitude(), ping.getRecordedAt());
+                    acceptedCount++;
+                }
+                continue;
+            }
+            long deliveryId = ping.getDeliveryId();
+            Position current = positions.get(deliveryId);
+            Position seed = null;
+            if (current == null || !username.equals(current.riderUsername())) {
+                if (!checked.containsKey(deliveryId)) {
+                    checked.put(deliveryId, checkAssignment(deliveryId, username));
+                }
+                seed = checked.get(deliveryId);
+                if (seed == null) {
+                    continue;
+                }
+            }
+
+            Position start = seed;
+            TrackPoint[] point = new TrackPoint[1];
+            boolean[] applied = new boolean[1];
+            positions.compute(deliveryId, (id, old) -> {
+                Position base = old != null && username.equals(old.riderUsername()) ? old : start;
+                if (base == null || ping.getRecordedAt() <= base.recordedAt()) {
+                    return old;
+                }
+                Position next = base.moveTo(ping, now);
+                if (ping.getRecordedAt() - base.storedAt() >= minIntervalMs
+                        || RiderSpatialIndex.distanceMeters(base.storedLatitude(), base.storedLongitude(),
+                                                            ping.getLatitude(), ping.getLongitude()) >= minDistanceMeters) {
+                    next = next.stored();
+                    point[0] = new TrackPoint(id, next.riderId(), ping.getLatitude(), ping.getLongitude(),
+                            ping.getSpeed(), ping.getHeading(), ping.getRecordedAt());
+                }
+                applied[0] = true;
+                return next;
+            });
+
+            if (applied[0]) {
+                acceptedCount++;
+                Long riderId = seed != null ? seed.riderId() : current.riderId();
+                riderSpatialIndex.update(riderId, ping.getLatitude(), ping.getLongitude(), ping.getRecordedAt());
+            }
+            if (point[0] != null && !buffer.offer(point[0])) {
+                dropped.increment();
+            }
+        }
+
+        received.add(pings.size());
+        accepted.add(acceptedCount);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("accepted", acceptedCount);
+        result.put("ignored", pings.size() - acceptedCount);
+        return result;
+    }
+
+    /**
+     * Latest position of a delivery, or null if none is known or the user is
+     * neither its rider, its customer nor privileged
+     */
+    public DeliveryLocation getLocation(long deliveryId, String username, boolean privileged) {
+        Position position = positions.get(deliveryId);
+        if (position == null || !(privileged
+                || username.equals(position.riderUsername())
+                || username.equals(position.customerUsername()))) {
+            return null;
+        }
+        return new DeliveryLocation(deliveryId, position.riderId(), position.latitude(), position.longitude(),
+                position.speed(), position.heading(), position.recordedAt());
+    }
+
+    /**
+     * Drop a delivery's position once the current transaction commits, e.g.
+     * when it is completed or handed to another rider
+     */
+    public void forget(Long deliveryId) {
+        Runnable remove = () -> positions.remove(deliveryId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove.run();
+                }
+            });
+        } else {
+            remove.run();
+        }
+    }
+
+    /**
+     * Drop positions that have not moved for delivery.location.stale-after-ms
+     */
+    @Scheduled(fixedDelayString = "${delivery.location.evict-interval-ms:600000}")
+    public void evictStale() {
+        long cutoff = System.currentTimeMillis() - staleAfterMs;
+        int removed = positions.removeIf((id, position) -> position.receivedAt() < cutoff);
+        if (removed > 0) {
+            logger.info("Evicted {} stale delivery positions", removed);
+        }
+    }
+
+    /**
+     * Ingestion, down-sampling and write counters
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedDeliveries", positions.size());
+        stats.put("pingsReceived", received.sum());
+        stats.put("pingsAccepted", accepted.sum());
+        stats.put("trackPointsWritten", persisted.sum());
+        stats.put("trackPointsDropped", dropped.sum());
+        stats.put("trackPointsBuffered", buffer.size());
+        return stats;
+    }
+
+    private boolean isValid(LocationPing ping, long now) {
+        return ping != null && ping.getRecordedAt() != null
+                && ping.getLatitude() != null && Math.abs(ping.getLatitude()) <= 90
+                && ping.getLongitude() != null && Math.abs(ping.getLongitude()) <= 180
+                && ping.getRecordedAt() > 0 && ping.getRecordedAt() <= now + maxClockSkewMs;
+    }
+
+    /**
+     * Starting position for a delivery if the user is its rider and it is still open
+     */
+    private Position checkAssignment(long deliveryId, String username) {
+        DeliveryParticipants participants = deliveryRepository.findParticipants(deliveryId).orElse(null);
+        if (participants == null || participants.getStaffId() == null
+                || !username.equals(participants.getStaffUsername())
+                || CLOSED_STATUSES.contains(participants.getStatus())) {
+            return null;
+        }
+        return new Position(participants.getStaffId(), username, participants.getCustomerUsername(),
+                Double.NaN, Double.NaN, null, null, 0, 0, 0, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Id of an active delivery staff user, looked up once per username
+     */
+    private Long riderIdOf(String username) {
+        Long riderId = riderIds.get(username);
+        if (riderId == null) {
+            riderId = userRepository.findActiveIdByUsernameAndRole(username, "DELIVERY_STAFF").orElse(null);
+            if (riderId != null) {
+                riderIds.put(username, riderId);
+            }
+        }
+        return riderId;
+    }
+
+    private void runWriter() {
+        List<TrackPoint> batch = new ArrayList<>(writeBatchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                TrackPoint first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, writeBatchSize - 1);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<TrackPoint> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    TrackPoint point = batch.get(i);
+                    ps.setLong(1, point.deliveryId());
+                    ps.setLong(2, point.riderId());
+                    ps.setDouble(3, point.latitude());
+                    ps.setDouble(4, point.longitude());
+                    setNullableDouble(ps, 5, point.speed());
+                    setNullableDouble(ps, 6, point.heading());
+                    ps.setTimestamp(7, new Timestamp(point.recordedAt()));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            persisted.add(batch.size());
+        } catch (DataAccessException e) {
+            dropped.add(batch.size());
+            logger.warn("Dropped {} delivery track points: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+
+    /**
+     * Latest position of one delivery with the last point written to the
+     * track table; receivedAt is server time, for eviction
+     */
+    private record Position(Long riderId, String riderUsername, String customerUsername,
+                            double latitude, double longitude, Double speed, Double heading,
+                            long recordedAt, long receivedAt,
+                            long storedAt, double storedLatitude, double storedLongitude) {
+
+        Position moveTo(LocationPing ping, long now) {
+            return new Position(riderId, riderUsername, customerUsername, ping.getLatitude(), ping.getLongitude(),
+                    ping.getSpeed(), ping.getHeading(), ping.getRecordedAt(), now,
+                    storedAt, storedLatitude, storedLongitude);
+        }
+
+        Position stored() {
+            return new Position(riderId, riderUsername, customerUsername, latitude, longitude, speed, heading,
+                    recordedAt, receivedAt, recordedAt, latitude, longitude);
+        }
+    }
+
+    private record TrackPoint(long deliveryId, long riderId, double latitude, double longitude,
+                              Double speed, Double heading, long recordedAt) {
+    }
+}
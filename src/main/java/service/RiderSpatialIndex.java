@@ -0,0 +1,375 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.cache.LongKeyedMap;
+import com.vehicle.spareparts.dto.NearbyRider;
+import com.vehicle.spareparts.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rider Spatial Index
+ * Uniform grid over latitude/longitude holding the last known position of
+ * every active rider, for k-nearest and radius queries at dispatch time.
+ *
+ * Each cell is delivery.spatial.cell-size-deg on a side and keeps its rider
+ * ids in a small copy-on-write long[]; rider positions live in a
+ * LongKeyedMap. A query scans rings of cells outward from the query point
+ * and stops once the rings cover the k-th best distance (or the radius), so
+ * its cost depends on local density, not on the fleet size.
+ *
+ * Positions come from RiderLocationService pings. Deactivated riders are
+ * parked and ignored until reactivated; the inactive set is loaded from
+ * users.is_active at startup and changed after the user update commits.
+ * Riders silent for
+ * delivery.spatial.stale-after-ms are left out of results and evicted.
+ */
+@Component
+public class RiderSpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RiderSpatialIndex.class);
+
+    private static final double EARTH_RADIUS_M = 6_371_000;
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_M / 180;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${delivery.spatial.cell-size-deg:0.01}")
+    private double cellSize;
+
+    @Value("${delivery.spatial.max-radius-m:20000}")
+    private double maxRadiusMeters;
+
+    @Value("${delivery.spatial.stale-after-ms:600000}")
+    private long staleAfterMs;
+
+    private int lonCells;
+
+    private final LongKeyedMap<RiderPoint> points = new LongKeyedMap<>(16_384, 64);
+    private final LongKeyedMap<long[]> cells = new LongKeyedMap<>(16_384, 64);
+    private final Set<Long> deactivated = ConcurrentHashMap.newKeySet();
+    private final Map<Long, RiderPoint> parked = new ConcurrentHashMap<>();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private final LongAdder cellsScanned = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        lonCells = (int) Math.ceil(360 / cellSize);
+    }
+
+    /**
+     * Load inactive riders so their pings are ignored after a restart
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInactiveRiders() {
+        List<Long> inactive = userRepository.findInactiveUserIdsByRole("DELIVERY_STAFF");
+        inactive.forEach(this::park);
+        logger.info("Rider index loaded {} inactive riders", inactive.size());
+    }
+
+    /**
+     * Move a rider to a new position; older fixes than the stored one are ignored
+     */
+    public void update(long riderId, double latitude, double longitude, long recordedAt) {
+        if (deactivated.contains(riderId)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long cell = cellOf(latitude, longitude);
+        // Cell membership changes under the rider's stripe lock, so moves of one rider never interleave
+        points.compute(riderId, (id, old) -> {
+            if (old != null && recordedAt <= old.recordedAt()) {
+                return old;
+            }
+            if (old == null || old.cell() != cell) {
+                if (old != null) {
+                    removeFromCell(old.cell(), id);
+                }
+                addToCell(cell, id);
+            }
+            return new RiderPoint(latitude, longitude, cell, recordedAt, now);
+        });
+    }
+
+    /**
+     * Take a rider out of results until activate() is called, once the
+     * current transaction commits
+     */
+    public void deactivate(long riderId) {
+        afterCommit(() -> park(riderId));
+    }
+
+    /**
+     * Return a rider to results, at their last position if it is still fresh,
+     * once the current transaction commits
+     */
+    public void activate(long riderId) {
+        afterCommit(() -> {
+            deactivated.remove(riderId);
+            RiderPoint last = parked.remove(riderId);
+            if (last != null && !isStale(last, System.currentTimeMillis())) {
+                update(riderId, last.latitude(), last.longitude(), last.recordedAt());
+            }
+        });
+    }
+
+    /**
+     * Up to k riders nearest to a point within delivery.spatial.max-radius-m, nearest first
+     */
+    public List<NearbyRider> nearest(double latitude, double longitude, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        // Max-heap on distance holding the best k so far
+        PriorityQueue<NearbyRider> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(NearbyRider::getDistanceMeters).reversed());
+
+        scan(latitude, longitude, maxRadiusMeters, now, (rider, coveredMeters) -> {
+            if (rider != null) {
+                if (best.size() < k) {
+                    best.add(rider);
+                } else if (rider.getDistanceMeters() < best.peek().getDistanceMeters()) {
+                    best.poll();
+                    best.add(rider);
+                }
+                return true;
+            }
+            // End of a ring: done once every unscanned cell is farther than the k-th best
+            return best.size() < k || best.peek().getDistanceMeters() > coveredMeters;
+        });
+
+        List<NearbyRider> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(NearbyRider::getDistanceMeters));
+        record(start);
+        return result;
+    }
+
+    /**
+     * All riders within a radius of a point, nearest first
+     */
+    public List<NearbyRider> within(double latitude, double longitude, double radiusMeters) {
+        long start = System.nanoTime();
+        List<NearbyRider> result = new ArrayList<>();
+        scan(latitude, longitude, Math.min(radiusMeters, maxRadiusMeters), System.currentTimeMillis(),
+                (rider, coveredMeters) -> {
+                    if (rider != null) {
+                        result.add(rider);
+                    }
+                    return true;
+                });
+        result.sort(Comparator.comparingDouble(NearbyRider::getDistanceMeters));
+        record(start);
+        return result;
+    }
+
+    /**
+     * Evict riders that have not reported for delivery.spatial.stale-after-ms
+     */
+    @Scheduled(fixedDelayString = "${delivery.spatial.evict-interval-ms:60000}")
+    public void evictStale() {
+        long now = System.currentTimeMillis();
+        int removed = points.removeIf((id, point) -> {
+            if (!isStale(point, now)) {
+                return false;
+            }
+            removeFromCell(point.cell(), id);
+            return true;
+        });
+        parked.values().removeIf(point -> isStale(point, now));
+        if (removed > 0) {
+            logger.debug("Evicted {} stale rider positions", removed);
+        }
+    }
+
+    /**
+     * Index size and query timings
+     */
+    public Map<String, Object> getStatistics() {
+        long queryCount = queries.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("riders", points.size());
+        stats.put("occupiedCells", cells.size());
+        stats.put("deactivated", deactivated.size());
+        stats.put("cellSizeDegrees", cellSize);
+        stats.put("queries", queryCount);
+        stats.put("averageQueryMicros", queryCount == 0 ? 0 : queryNanos.sum() / queryCount / 1000);
+        stats.put("averageCellsScanned", queryCount == 0 ? 0 : cellsScanned.sum() / queryCount);
+        return stats;
+    }
+
+    /**
+     * Approximate ground distance in meters (equirectangular projection),
+     * accurate to well under 1% at city distances
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_M;
+    }
+
+    /**
+     * Visit riders ring by ring outward from a point. The visitor gets each
+     * rider within maxMeters, then (null, radius covered so far) after each
+     * ring, and stops the scan by returning false.
+     */
+    private void scan(double latitude, double longitude, double maxMeters, long now, RingVisitor visitor) {
+        int centerLat = latIndex(latitude);
+        int centerLon = lonIndex(longitude);
+        int scanned = 0;
+        for (int ring = 0; ; ring++) {
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                boolean edgeRow = Math.abs(dLat) == ring;
+                // Inner rows of a ring only have their two end cells
+                int step = edgeRow || ring == 0 ? 1 : 2 * ring;
+                for (int dLon = -ring; dLon <= ring; dLon += step) {
+                    int latCell = centerLat + dLat;
+                    if (latCell < 0 || latCell * cellSize > 180) {
+                        continue;
+                    }
+                    long[] riders = cells.get(key(latCell, Math.floorMod(centerLon + dLon, lonCells)));
+                    scanned++;
+                    if (riders == null) {
+                        continue;
+                    }
+                    for (long riderId : riders) {
+                        RiderPoint point = points.get(riderId);
+                        if (point == null || isStale(point, now)) {
+                            continue;
+                        }
+                        double distance = distanceMeters(latitude, longitude, point.latitude(), point.longitude());
+                        if (distance <= maxMeters) {
+                            visitor.visit(new NearbyRider(riderId, point.latitude(), point.longitude(),
+                                    distance, point.recordedAt()), 0);
+                        }
+                    }
+                }
+            }
+            double covered = coveredMeters(latitude, ring);
+            if (covered >= maxMeters || ring >= lonCells / 2 || !visitor.visit(null, covered)) {
+                break;
+            }
+        }
+        cellsScanned.add(scanned);
+    }
+
+    /**
+     * Distance from the point that rings 0..ring are guaranteed to cover:
+     * ring cells on every side, with cells narrowest at the poleward edge
+     */
+    private double coveredMeters(double latitude, int ring) {
+        double polewardLatitude = Math.min(89.9, Math.abs(latitude) + (ring + 1) * cellSize);
+        double cellMeters = cellSize * METERS_PER_DEGREE;
+        return ring * Math.min(cellMeters, cellMeters * Math.cos(Math.toRadians(polewardLatitude)));
+    }
+
+    private void park(long riderId) {
+        deactivated.add(riderId);
+        points.compute(riderId, (id, old) -> {
+            if (old != null) {
+                removeFromCell(old.cell(), id);
+                parked.put(id, old);
+            }
+            return null;
+        });
+    }
+
+    private void addToCell(long cell, long riderId) {
+        cells.compute(cell, (c, riders) -> {
+            if (riders == null) {
+                return new long[] {riderId};
+            }
+            long[] grown = Arrays.copyOf(riders, riders.length + 1);
+            grown[riders.length] = riderId;
+            return grown;
+        });
+    }
+
+    private void removeFromCell(long cell, long riderId) {
+        cells.compute(cell, (c, riders) -> {
+            if (riders == null) {
+                return null;
+            }
+            long[] kept = new long[riders.length];
+            int n = 0;
+            for (long id : riders) {
+                if (id != riderId) {
+                    kept[n++] = id;
+                }
+            }
+            return n == 0 ? null : Arrays.copyOf(kept, n);
+        });
+    }
+
+    private boolean isStale(RiderPoint point, long now) {
+        return point.receivedAt() < now - staleAfterMs;
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return key(latIndex(latitude), lonIndex(longitude));
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellSize);
+    }
+
+    private int lonIndex(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellSize), lonCells);
+    }
+
+    private static long key(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | lonIndex;
+    }
+
+    private void record(long start) {
+        queries.increment();
+        queryNanos.add(System.nanoTime() - start);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RingVisitor {
+        boolean visit(NearbyRider rider, double coveredMeters);
+    }
+
+    /**
+     * Last known position; receivedAt is server time, for staleness
+     */
+    private record RiderPoint(double latitude, double longitude, long cell, long recordedAt, long receivedAt) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sales Aggregate Store
+ * Keeps running sales totals (order count, revenue, counts per status and
+ * revenue per day) so the sales report never scans the orders table.
+ *
+ * Updated from OrderService after each order transaction commits, and
+ * rebuilt from GROUP BY queries at startup and on a schedule to backfill
+ * and correct any drift.
+ *
+ * A rebuild reads both GROUP BY queries from one REPEATABLE READ snapshot.
+ * Order transactions hold a read lock on a commit gate from just before
+ * their commit until their delta is applied, and the rebuild opens its
+ * snapshot under the write lock, so every delta is either in the snapshot
+ * or committed after it. Deltas applied after the snapshot opened are
+ * replayed onto the rebuilt totals when they are swapped in.
+ */
+@Component
+public class SalesAggregateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesAggregateStore.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate snapshotTemplate;
+    private final ReentrantReadWriteLock commitGate = new ReentrantReadWriteLock();
+
+    // Deltas applied since the running rebuild opened its snapshot; null when not rebuilding
+    private List<Runnable> replay;
+
+    private long totalOrders;
+    private BigDecimal totalSales = BigDecimal.ZERO;
+    private final Map<String, Long> ordersByStatus = new HashMap<>();
+    private final TreeMap<LocalDate, BigDecimal> revenueByDay = new TreeMap<>();
+
+    @Autowired
+    public SalesAggregateStore(PlatformTransactionManager transactionManager) {
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Record a new order once its transaction commits
+     */
+    public void recordOrderCreated(LocalDateTime orderDate, BigDecimal amount, String status) {
+        afterCommit(() -> {
+            totalOrders++;
+            totalSales = totalSales.add(amount);
+            ordersByStatus.merge(status, 1L, Long::sum);
+            revenueByDay.merge(orderDate.toLocalDate(), amount, BigDecimal::add);
+        });
+    }
+
+    /**
+     * Record an order status transition once its transaction commits
+     */
+    public void recordStatusChange(String oldStatus, String newStatus) {
+        if (newStatus.equals(oldStatus)) {
+            return;
+        }
+        afterCommit(() -> {
+            ordersByStatus.computeIfPresent(oldStatus, (status, count) -> count > 1 ? count - 1 : null);
+            ordersByStatus.merge(newStatus, 1L, Long::sum);
+        });
+    }
+
+    /**
+     * Consistent copy of the current aggregates
+     */
+    public synchronized SalesSnapshot snapshot(int recentDays) {
+        LocalDate from = LocalDate.now().minusDays(recentDays - 1L);
+        return new SalesSnapshot(totalOrders, totalSales,
+                Collections.unmodifiableMap(new HashMap<>(ordersByStatus)),
+                Collections.unmodifiableNavigableMap(new TreeMap<>(revenueByDay.tailMap(from, true))));
+    }
+
+    /**
+     * Recompute every aggregate from the orders table
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${sales.aggregate.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        try {
+            snapshotTemplate.executeWithoutResult(status -> rebuildFromSnapshot());
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+    }
+
+    private void rebuildFromSnapshot() {
+        long start = System.currentTimeMillis();
+
+        commitGate.writeLock().lock();
+        try {
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            // The first consistent read opens the snapshot while no order commit is in flight
+            jdbcTemplate.queryForList("SELECT id FROM orders LIMIT 1", Long.class);
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+
+        long orders = 0;
+        BigDecimal sales = BigDecimal.ZERO;
+        Map<String, Long> byStatus = new HashMap<>();
+        for (Object[] row : orderRepository.aggregateByStatus()) {
+            long count = ((Number) row[1]).longValue();
+            orders += count;
+            sales = sales.add((BigDecimal) row[2]);
+            byStatus.put((String) row[0], count);
+        }
+
+        TreeMap<LocalDate, BigDecimal> byDay = new TreeMap<>();
+        for (Object[] row : orderRepository.sumRevenueByDay()) {
+            if (row[0] != null) {
+                LocalDate day = row[0] instanceof Date date ? date.toLocalDate() : (LocalDate) row[0];
+                byDay.put(day, (BigDecimal) row[1]);
+            }
+        }
+
+        synchronized (this) {
+            totalOrders = orders;
+            totalSales = sales;
+            ordersByStatus.clear();
+            ordersByStatus.putAll(byStatus);
+            revenueByDay.clear();
+            revenueByDay.putAll(byDay);
+            replay.forEach(Runnable::run);
+            logger.info("Sales aggregates rebuilt: {} orders, {} days, {} deltas replayed in {} ms",
+                    orders, byDay.size(), replay.size(), System.currentTimeMillis() - start);
+            replay = null;
+        }
+    }
+
+    private synchronized void apply(Runnable delta) {
+        delta.run();
+        if (replay != null) {
+            replay.add(delta);
+        }
+    }
+
+    private void afterCommit(Runnable delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean gated;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commitGate.readLock().lock();
+                    gated = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    apply(delta);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (gated) {
+                        commitGate.readLock().unlock();
+                    }
+                }
+            });
+        } else {
+            apply(delta);
+        }
+    }
+
+    /**
+     * Immutable view of the sales aggregates
+     */
+    public record SalesSnapshot(long totalOrders, BigDecimal totalSales,
+                                Map<String, Long> ordersByStatus,
+                                NavigableMap<LocalDate, BigDecimal> revenueByDay) {
+
+        public long countByStatus(String status) {
+            return ordersByStatus.getOrDefault(status, 0L);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.entity.SparePart;
+import com.vehicle.spareparts.repository.SparePartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over the active spare part catalog.
+ * Indexes partName, partNumber, category, brand and vehicleModel and answers
+ * exact, prefix and substring (trigram) matches ranked by TF-IDF, so catalog
+ * search no longer scans the spare_parts table.
+ */
+@Component
+public class SparePartSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SparePartSearchIndex.class);
+
+    private static final int GRAM = 3;
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    // Match quality boosts
+    private static final float EXACT_BOOST = 1.0f;
+    private static final float PREFIX_BOOST = 0.75f;
+    private static final float INFIX_BOOST = 0.5f;
+
+    // Best score first, ties by id
+    private static final Comparator<Hit> BY_RANK = (a, b) -> {
+        int byScore = Float.compare(b.score(), a.score());
+        return byScore != 0 ? byScore : Long.compare(a.id(), b.id());
+    };
+
+    @Autowired
+    private SparePartRepository sparePartRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (part id -> weighted term frequency)
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+
+    // part id -> its terms, used to unindex on update/delete
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+
+    // sorted vocabulary for prefix lookups
+    private final TreeSet<String> vocabulary = new TreeSet<>();
+
+    // trigram -> terms containing it, for substring lookups
+    private final Map<String, Set<String>> gramIndex = new HashMap<>();
+
+    /**
+     * Build the index from the spare_parts table at startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            vocabulary.clear();
+            gramIndex.clear();
+
+            Page<SparePart> page;
+            int pageNumber = 0;
+            do {
+                page = sparePartRepository.findAll(PageRequest.of(pageNumber++, BUILD_PAGE_SIZE, Sort.by("id")));
+                for (SparePart part : page.getContent()) {
+                    if (Boolean.TRUE.equals(part.getIsActive())) {
+                        addDocument(part);
+                    }
+                }
+            } while (page.hasNext());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Spare part search index built: {} parts, {} terms in {} ms",
+                documents.size(), vocabulary.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Add or replace a part in the index. Inactive parts are removed.
+     */
+    public void index(SparePart part) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(part.getId());
+            if (Boolean.TRUE.equals(part.getIsActive())) {
+                addDocument(part);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a part from the index
+     */
+    public void remove(Long partId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(partId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search active parts. Every keyword token must match one of the indexed
+     * fields. Returns at most limit hits ordered by TF-IDF score, best first,
+     * starting after the given hit (null for the best match), so results can
+     * be paged by relevance without ranking every match.
+     */
+    public List<Hit> search(String keyword, Hit after, int limit) {
+        List<String> queryTokens = tokenize(keyword);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : queryTokens) {
+                Map<Long, Float> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // AND semantics: keep only parts matching every token
+                    Map<Long, Float> merged = new HashMap<>();
+                    for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                        Float other = tokenScores.get(entry.getKey());
+                        if (other != null) {
+                            merged.put(entry.getKey(), entry.getValue() + other);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            // Keep the best limit hits ranked after the cursor in a heap with the worst at its head
+            PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, BY_RANK.reversed());
+            for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                Hit hit = new Hit(entry.getKey(), entry.getValue());
+                if (after != null && BY_RANK.compare(hit, after) <= 0) {
+                    continue;
+                }
+                best.add(hit);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<Hit> ranked = new ArrayList<>(best);
+            ranked.sort(BY_RANK);
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed parts
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A matching part and its relevance score
+     */
+    public record Hit(long id, float score) {
+    }
+
+    private Map<Long, Float> scoreToken(String token) {
+        Map<String, Float> matchedTerms = new HashMap<>();
+
+        for (String term : vocabulary.subSet(token, true, token + Character.MAX_VALUE, false)) {
+            matchedTerms.put(term, term.equals(token) ? EXACT_BOOST : PREFIX_BOOST);
+        }
+        if (token.length() >= GRAM) {
+            for (String term : termsContaining(token)) {
+                matchedTerms.putIfAbsent(term, INFIX_BOOST);
+            }
+        }
+
+        Map<Long, Float> scores = new HashMap<>();
+        int totalDocuments = documents.size();
+        for (Map.Entry<String, Float> match : matchedTerms.entrySet()) {
+            Map<Long, Float> posting = postings.get(match.getKey());
+            float idf = (float) Math.log(1.0 + (double) totalDocuments / posting.size());
+            for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+                scores.merge(entry.getKey(), entry.getValue() * idf * match.getValue(), Float::sum);
+            }
+        }
+        return scores;
+    }
+
+    private Set<String> termsContaining(String token) {
+        Set<String> candidates = null;
+        for (String gram : grams(token)) {
+            Set<String> terms = gramIndex.get(gram);
+            if (terms == null) {
+                return Collections.emptySet();
+            }
+            if (candidates == null) {
+                candidates = new HashSet<>(terms);
+            } else {
+                candidates.retainAll(terms);
+            }
+        }
+        // Trigram hits are candidates only; confirm the real substring
+        candidates.removeIf(term -> !term.contains(token));
+        return candidates;
+    }
+
+    private void addDocument(SparePart part) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, part.getPartNumber(), 3.0f);
+        addField(terms, part.getPartName(), 2.0f);
+        addField(terms, part.getBrand(), 1.5f);
+        addField(terms, part.getCategory(), 1.0f);
+        addField(terms, part.getVehicleModel(), 1.0f);
+
+        documents.put(part.getId(), terms);
+        for (Map.Entry<String, Float> entry : terms.entrySet()) {
+            String term = entry.getKey();
+            Map<Long, Float> posting = postings.computeIfAbsent(term, t -> new HashMap<>());
+            if (posting.isEmpty()) {
+                vocabulary.add(term);
+                for (String gram : grams(term)) {
+                    gramIndex.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+                }
+            }
+            posting.put(part.getId(), entry.getValue());
+        }
+    }
+
+    private void removeDocument(Long partId) {
+        Map<String, Float> terms = documents.remove(partId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            posting.remove(partId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                vocabulary.remove(term);
+                for (String gram : grams(term)) {
+                    Set<String> gramTerms = gramIndex.get(gram);
+                    gramTerms.remove(term);
+                    if (gramTerms.isEmpty()) {
+                        gramIndex.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addField(Map<String, Float> terms, String value, float weight) {
+        for (String token : tokenize(value)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    private static List<String> tokenize(String value) {
+        List<String> tokens = new ArrayList<>();
+        if (value == null) {
+            return tokens;
+        }
+        for (String token : value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> grams(String term) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            grams.add(term.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
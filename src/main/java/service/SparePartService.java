@@ -1,21 +1,81 @@
 package com.vehicle.spareparts.service;
 
+import com.vehicle.spareparts.cache.BoundedCache;
+import com.vehicle.spareparts.dto.KeysetPage;
 import com.vehicle.spareparts.dto.SparePartRequest;
 import com.vehicle.spareparts.dto.SparePartResponse;
 import com.vehicle.spareparts.entity.SparePart;
 import com.vehicle.spareparts.repository.SparePartRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SparePartService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     @Autowired
     private SparePartRepository sparePartRepository;
     
+    @Autowired
+    private StockReservationLedger stockReservationLedger;
+    
+    @Autowired
+    private SparePartSearchIndex sparePartSearchIndex;
+    
+    @Value("${catalog.cache.max-size:10000}")
+    private int cacheMaxSize;
+    
+    @Value("${catalog.cache.ttl-seconds:600}")
+    private long cacheTtlSeconds;
+    
+    @Value("${catalog.cache.stock-ttl-seconds:5}")
+    private long stockTtlSeconds;
+    
+    private static final String ALL_CATEGORIES = "ALL";
+    
+    // Catalog tier: changes a few times a day, cached aggressively
+    private BoundedCache<Long, SparePartResponse> partsById;
+    private BoundedCache<String, Long> partIdsByNumber;
+    private BoundedCache<String, List<SparePartResponse>> partsByCategory;
+    private BoundedCache<String, List<String>> categories;
+    
+    // Stock tier: short-lived, overlaid on catalog entries when they are served
+    private BoundedCache<Long, Integer> stockById;
+    
+    @PostConstruct
+    public void initCaches() {
+        Duration catalogTtl = Duration.ofSeconds(cacheTtlSeconds);
+        partsById = new BoundedCache<>("partsById", cacheMaxSize, catalogTtl);
+        partIdsByNumber = new BoundedCache<>("partIdsByNumber", cacheMaxSize, catalogTtl);
+        partsByCategory = new BoundedCache<>("partsByCategory", Math.max(2, cacheMaxSize / 100), catalogTtl);
+        categories = new BoundedCache<>("categories", 2, catalogTtl);
+        stockById = new BoundedCache<>("stockById", cacheMaxSize, Duration.ofSeconds(stockTtlSeconds));
+    }
+    
     @Transactional
     public SparePartResponse createSparePart(SparePartRequest request) {
         if (sparePartRepository.findByPartNumber(request.getPartNumber()).isPresent()) {
@@ -37,6 +97,10 @@ public class SparePartService {
         sparePart.setIsActive(request.getIsActive());
         
         SparePart saved = sparePartRepository.save(sparePart);
+        afterCommit(() -> {
+            sparePartSearchIndex.index(saved);
+            evictCatalogEntries(saved.getId(), saved.getPartNumber(), saved.getCategory());
+        });
         return convertToResponse(saved);
     }
     
@@ -44,6 +108,7 @@ public class SparePartService {
     public SparePartResponse updateSparePart(Long id, SparePartRequest request) {
         SparePart sparePart = sparePartRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Spare part not found"));
+        String oldCategory = sparePart.getCategory();
         
         sparePart.setPartName(request.getPartName());
         sparePart.setCategory(request.getCategory());
@@ -51,21 +116,44 @@ public class SparePartService {
         sparePart.setVehicleModel(request.getVehicleModel());
         sparePart.setDescription(request.getDescription());
         sparePart.setPrice(request.getPrice());
-        sparePart.setStockQuantity(request.getStockQuantity());
         sparePart.setReorderLevel(request.getReorderLevel());
         sparePart.setWarrantyMonths(request.getWarrantyMonths());
         sparePart.setImageUrl(request.getImageUrl());
         sparePart.setIsActive(request.getIsActive());
         
         SparePart updated = sparePartRepository.save(sparePart);
+        afterCommit(() -> {
+            sparePartSearchIndex.index(updated);
+            evictCatalogEntries(id, updated.getPartNumber(), oldCategory, updated.getCategory());
+        });
+        
+        // The ledger swaps in the new quantity atomically on commit, so concurrent checkouts are not lost
+        if (request.getStockQuantity() == null || request.getStockQuantity() < 0) {
+            throw new RuntimeException("Stock quantity cannot be negative");
+        }
+        stockReservationLedger.setStock(id, request.getStockQuantity());
+        afterCommit(() -> stockById.invalidate(id));
         return convertToResponse(updated);
     }
     
-    @Transactional(readOnly = true)
     public SparePartResponse getSparePart(Long id) {
-        SparePart sparePart = sparePartRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Spare part not found"));
-        return convertToResponse(sparePart);
+        SparePartResponse cached = partsById.get(id, key -> sparePartRepository.findById(key)
+                .map(this::convertToResponse)
+                .orElse(null));
+        if (cached == null) {
+            throw new RuntimeException("Spare part not found");
+        }
+        return withCurrentStock(cached);
+    }
+    
+    public SparePartResponse getSparePartByPartNumber(String partNumber) {
+        Long id = partIdsByNumber.get(partNumber, key -> sparePartRepository.findByPartNumber(key)
+                .map(SparePart::getId)
+                .orElse(null));
+        if (id == null) {
+            throw new RuntimeException("Spare part not found");
+        }
+        return getSparePart(id);
     }
     
     @Transactional(readOnly = true)
@@ -75,25 +163,96 @@ public class SparePartService {
                 .collect(Collectors.toList());
     }
     
-    @Transactional(readOnly = true)
-    public List<SparePartResponse> getActiveSpareParts() {
-        return sparePartRepository.findByIsActive(true).stream()
-                .map(this::convertToResponse)
+    // One page of a category ordered by id, sliced from the cached category list
+    public KeysetPage<SparePartResponse> getSparePartsByCategory(String category, String cursor, int size) {
+        List<SparePartResponse> cached = partsByCategory.get(category, key -> Collections.unmodifiableList(
+                sparePartRepository.findByCategory(key).stream()
+                        .sorted(Comparator.comparing(SparePart::getId))
+                        .map(this::convertToResponse)
+                        .collect(Collectors.toList())));
+        long after = idCursor(cursor);
+        int limit = pageSize(size);
+        List<SparePartResponse> page = cached.stream()
+                .filter(part -> part.getId() > after)
+                .limit(limit)
                 .collect(Collectors.toList());
+        // One stock lookup for the whole page, not one per part
+        Map<Long, Integer> stock = currentStock(page.stream().map(SparePartResponse::getId).collect(Collectors.toList()));
+        return idPage(page.stream()
+                .map(part -> withStock(part, stock.get(part.getId())))
+                .collect(Collectors.toList()), limit);
+    }
+    
+    public List<String> getAllCategories() {
+        return categories.get(ALL_CATEGORIES, key -> Collections.unmodifiableList(sparePartRepository.findAllCategories()));
+    }
+    
+    /**
+     * Hit/miss/eviction counters of every catalog cache
+     */
+    public List<Map<String, Object>> getCacheStatistics() {
+        return Arrays.asList(
+                partsById.getStatistics(),
+                partIdsByNumber.getStatistics(),
+                partsByCategory.getStatistics(),
+                categories.getStatistics(),
+                stockById.getStatistics());
     }
     
+    // Active parts ordered by id, one page at a time; cursor is the last id of the previous page
     @Transactional(readOnly = true)
-    public List<SparePartResponse> searchSpareParts(String keyword) {
-        return sparePartRepository.searchParts(keyword).stream()
+    public KeysetPage<SparePartResponse> getActiveSpareParts(String cursor, int size) {
+        int limit = pageSize(size);
+        return idPage(sparePartRepository.findActiveAfter(idCursor(cursor), PageRequest.of(0, limit)).stream()
                 .map(this::convertToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), limit);
     }
     
+    // Search results, best match first; cursor is "score_id" of the last hit of the previous page
     @Transactional(readOnly = true)
-    public List<SparePartResponse> getSparePartsByCategory(String category) {
-        return sparePartRepository.findByCategory(category).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public KeysetPage<SparePartResponse> searchSpareParts(String keyword, String cursor, int size) {
+        int limit = pageSize(size);
+        List<SparePartSearchIndex.Hit> hits = sparePartSearchIndex.search(keyword, hitCursor(cursor), limit);
+        // Only the page's matches are loaded, by primary key, then put back in rank order
+        Map<Long, SparePart> parts = sparePartRepository.findAllById(
+                        hits.stream().map(SparePartSearchIndex.Hit::id).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(SparePart::getId, part -> part));
+        List<SparePartResponse> page = new ArrayList<>(hits.size());
+        for (SparePartSearchIndex.Hit hit : hits) {
+            SparePart part = parts.get(hit.id());
+            if (part != null) {
+                page.add(convertToResponse(part));
+            }
+        }
+        String nextCursor = null;
+        if (hits.size() == limit) {
+            SparePartSearchIndex.Hit last = hits.get(hits.size() - 1);
+            nextCursor = last.score() + "_" + last.id();
+        }
+        return new KeysetPage<>(page, nextCursor);
+    }
+    
+    /**
+     * Stream every active part to the consumer without holding the catalog in memory
+     */
+    @Transactional(readOnly = true)
+    public void streamActiveSpareParts(Consumer<SparePartResponse> consumer) {
+        try (Stream<SparePart> parts = sparePartRepository.streamActive()) {
+            parts.forEach(part -> {
+                consumer.accept(convertToResponse(part));
+                entityManager.detach(part);
+            });
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamSparePartsByCategory(String category, Consumer<SparePartResponse> consumer) {
+        try (Stream<SparePart> parts = sparePartRepository.streamByCategory(category)) {
+            parts.forEach(part -> {
+                consumer.accept(convertToResponse(part));
+                entityManager.detach(part);
+            });
+        }
     }
     
     @Transactional(readOnly = true)
@@ -109,20 +268,135 @@ public class SparePartService {
                 .orElseThrow(() -> new RuntimeException("Spare part not found"));
         sparePart.setIsActive(false);
         sparePartRepository.save(sparePart);
+        afterCommit(() -> {
+            sparePartSearchIndex.remove(id);
+            evictCatalogEntries(id, sparePart.getPartNumber(), sparePart.getCategory());
+        });
     }
     
     @Transactional
     public void updateStock(Long id, Integer quantity) {
-        SparePart sparePart = sparePartRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Spare part not found"));
+        if (!sparePartRepository.existsById(id)) {
+            throw new RuntimeException("Spare part not found");
+        }
         
-        int newQuantity = sparePart.getStockQuantity() + quantity;
-        if (newQuantity < 0) {
+        try {
+            stockReservationLedger.reserve(Map.of(id, -quantity));
+        } catch (StockReservationLedger.InsufficientStockException e) {
             throw new RuntimeException("Insufficient stock");
         }
-        
-        sparePart.setStockQuantity(newQuantity);
-        sparePartRepository.save(sparePart);
+        afterCommit(() -> stockById.invalidate(id));
+    }
+    
+    private void evictCatalogEntries(Long id, String partNumber, String... affectedCategories) {
+        partsById.invalidate(id);
+        partIdsByNumber.invalidate(partNumber);
+        for (String category : affectedCategories) {
+            partsByCategory.invalidate(category);
+        }
+        categories.invalidate(ALL_CATEGORIES);
+        stockById.invalidate(id);
+    }
+    
+    private Integer currentStock(Long id) {
+        // Parts tracked by the ledger have an exact in-memory count; others come from the stock tier
+        Integer liveStock = stockReservationLedger.peekAvailable(id);
+        if (liveStock != null) {
+            return liveStock;
+        }
+        return stockById.get(id, key -> sparePartRepository.findStockQuantityById(key).orElse(null));
+    }
+    
+    /**
+     * Current stock of several parts: ledger counts where tracked, the rest
+     * from the stock tier with misses loaded in batched queries
+     */
+    private Map<Long, Integer> currentStock(List<Long> ids) {
+        Map<Long, Integer> stock = new HashMap<>();
+        List<Long> untracked = new ArrayList<>();
+        for (Long id : ids) {
+            Integer liveStock = stockReservationLedger.peekAvailable(id);
+            if (liveStock != null) {
+                stock.put(id, liveStock);
+            } else {
+                untracked.add(id);
+            }
+        }
+        if (!untracked.isEmpty()) {
+            stock.putAll(stockById.getAll(untracked, missing -> {
+                Map<Long, Integer> loaded = new HashMap<>();
+                for (int from = 0; from < missing.size(); from += MAX_PAGE_SIZE) {
+                    List<Long> chunk = missing.subList(from, Math.min(missing.size(), from + MAX_PAGE_SIZE));
+                    for (Object[] row : sparePartRepository.findStockQuantitiesByIds(chunk)) {
+                        loaded.put((Long) row[0], (Integer) row[1]);
+                    }
+                }
+                return loaded;
+            }));
+        }
+        return stock;
+    }
+    
+    private SparePartResponse withCurrentStock(SparePartResponse cached) {
+        return withStock(cached, currentStock(cached.getId()));
+    }
+    
+    private SparePartResponse withStock(SparePartResponse cached, Integer stock) {
+        // Copy so the cached catalog entry itself is never modified
+        return new SparePartResponse(cached.getId(), cached.getPartNumber(), cached.getPartName(),
+                cached.getCategory(), cached.getBrand(), cached.getVehicleModel(), cached.getDescription(),
+                cached.getPrice(), stock, cached.getReorderLevel(),
+                cached.getWarrantyMonths(), cached.getImageUrl(), cached.getIsActive(),
+                cached.getCreatedAt(), cached.getUpdatedAt());
+    }
+    
+    private static long idCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+    
+    private static SparePartSearchIndex.Hit hitCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        int separator = cursor.lastIndexOf('_');
+        try {
+            return new SparePartSearchIndex.Hit(Long.parseLong(cursor.substring(separator + 1)),
+                    Float.parseFloat(cursor.substring(0, separator)));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+    
+    private static int pageSize(int size) {
+        if (size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+    
+    private static KeysetPage<SparePartResponse> idPage(List<SparePartResponse> parts, int limit) {
+        String nextCursor = parts.size() == limit ? String.valueOf(parts.get(parts.size() - 1).getId()) : null;
+        return new KeysetPage<>(parts, nextCursor);
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
     
     private SparePartResponse convertToResponse(SparePart sparePart) {
@@ -135,7 +409,8 @@ public class SparePartService {
         response.setVehicleModel(sparePart.getVehicleModel());
         response.setDescription(sparePart.getDescription());
         response.setPrice(sparePart.getPrice());
-        response.setStockQuantity(sparePart.getStockQuantity());
+        Integer liveStock = stockReservationLedger.peekAvailable(sparePart.getId());
+        response.setStockQuantity(liveStock != null ? liveStock : sparePart.getStockQuantity());
         response.setReorderLevel(sparePart.getReorderLevel());
         response.setWarrantyMonths(sparePart.getWarrantyMonths());
         response.setImageUrl(sparePart.getImageUrl());
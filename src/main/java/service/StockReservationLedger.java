@@ -0,0 +1,307 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.repository.SparePartRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stock Reservation Ledger
+ * Keeps one in-memory available-stock counter per spare part so a whole order
+ * can be reserved with lock-free CAS operations instead of read-compare-save
+ * round trips. Committed reservations are accumulated as net deltas and
+ * flushed to the spare_parts table in batches.
+ *
+ * Stock taken by a reservation leaves the counter immediately, so two orders
+ * can never claim the same units. Stock returned (restocks, cancellations)
+ * only reaches the counter once its transaction commits, so no order can
+ * spend units that a rollback would take back. A second counter tracks
+ * committed stock, which admin stock changes are applied against.
+ *
+ * The ledger is the only writer of spare_parts.stock_quantity after a part is
+ * created, and assumes a single application node.
+ */
+@Component
+public class StockReservationLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationLedger.class);
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE spare_parts SET stock_quantity = stock_quantity - ? WHERE id = ?";
+
+    @Autowired
+    private SparePartRepository sparePartRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Stock counters per part id
+    private final ConcurrentHashMap<Long, PartStock> stock = new ConcurrentHashMap<>();
+
+    // Committed but not yet flushed quantity to subtract from the DB, per part id
+    private final ConcurrentHashMap<Long, AtomicInteger> pendingDeltas = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StockReservationLedger(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Get current available stock for a part, loading it from the DB on first use
+     */
+    public int getAvailable(Long partId) {
+        return counter(partId).available.get();
+    }
+
+    /**
+     * Get available stock only if the part is already tracked by the ledger
+     */
+    public Integer peekAvailable(Long partId) {
+        PartStock counter = stock.get(partId);
+        return counter != null ? counter.available.get() : null;
+    }
+
+    /**
+     * Reserve stock for several parts in one step.
+     * Positive quantities take stock, negative quantities return it.
+     * Either every line is reserved or none is. Inside a transaction the
+     * reservation is committed or released together with it; returned stock
+     * becomes available only on commit.
+     */
+    public StockReservation reserve(Map<Long, Integer> quantities) {
+        // Lock-free, but apply in id order so concurrent orders fail consistently
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        Map<Long, Integer> taken = new HashMap<>();
+        Map<Long, Integer> returned = new HashMap<>();
+        preload(ordered.keySet());
+
+        for (Map.Entry<Long, Integer> entry : ordered.entrySet()) {
+            int quantity = entry.getValue();
+            if (quantity == 0) {
+                continue;
+            }
+            if (quantity < 0) {
+                counter(entry.getKey()); // fail fast on unknown parts
+                returned.put(entry.getKey(), quantity);
+                continue;
+            }
+            if (!tryTake(counter(entry.getKey()), quantity)) {
+                taken.forEach(this::giveBack);
+                throw new InsufficientStockException(entry.getKey());
+            }
+            taken.put(entry.getKey(), quantity);
+        }
+
+        StockReservation reservation = new StockReservation(taken, returned);
+        onCompletion(reservation::commit, reservation::release);
+        return reservation;
+    }
+
+    /**
+     * Set the committed stock of a part to an absolute quantity once the
+     * current transaction commits. The change is applied as a delta, so
+     * reservations still in flight keep their units: a later commit sells
+     * them and a rollback returns them without overstating stock.
+     */
+    public void setStock(Long partId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Stock quantity cannot be negative");
+        }
+        PartStock counter = counter(partId);
+        onCompletion(() -> {
+            // One atomic swap on committed stock; available moves by the same delta
+            int delta = quantity - counter.committed.getAndSet(quantity);
+            counter.available.addAndGet(delta);
+            addPending(partId, -delta);
+        }, () -> { });
+    }
+
+    private void onCompletion(Runnable onCommit, Runnable onRollback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        onCommit.run();
+                    } else {
+                        onRollback.run();
+                    }
+                }
+            });
+        } else {
+            onCommit.run();
+        }
+    }
+
+    /**
+     * Flush committed net deltas to the spare_parts table as one JDBC batch
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:500}")
+    public synchronized void flush() {
+        if (pendingDeltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, AtomicInteger> entry : pendingDeltas.entrySet()) {
+            int delta = entry.getValue().getAndSet(0);
+            if (delta != 0) {
+                batch.add(new Object[]{delta, entry.getKey()});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, batch));
+            logger.debug("Flushed stock deltas for {} parts", batch.size());
+        } catch (RuntimeException e) {
+            // Keep the deltas for the next flush
+            batch.forEach(row -> addPending((Long) row[1], (Integer) row[0]));
+            logger.error("Stock delta flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void preload(Collection<Long> partIds) {
+        // Seed every untracked part of the order with a single query
+        List<Long> missing = new ArrayList<>();
+        for (Long partId : partIds) {
+            if (!stock.containsKey(partId)) {
+                missing.add(partId);
+            }
+        }
+        if (missing.size() > 1) {
+            for (Object[] row : sparePartRepository.findStockQuantitiesByIds(missing)) {
+                stock.putIfAbsent((Long) row[0], new PartStock((Integer) row[1]));
+            }
+        }
+    }
+
+    private PartStock counter(Long partId) {
+        PartStock counter = stock.get(partId);
+        if (counter != null) {
+            return counter;
+        }
+        // Load outside the map; computeIfAbsent would hold the bin lock during the query
+        PartStock loaded = new PartStock(sparePartRepository.findStockQuantityById(partId)
+                .orElseThrow(() -> new RuntimeException("Spare part not found: " + partId)));
+        PartStock existing = stock.putIfAbsent(partId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private boolean tryTake(PartStock counter, int quantity) {
+        while (true) {
+            int current = counter.available.get();
+            int next = current - quantity;
+            if (next < 0) {
+                return false;
+            }
+            if (counter.available.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private void giveBack(Long partId, Integer quantity) {
+        counter(partId).available.addAndGet(quantity);
+    }
+
+    private void addPending(Long partId, Integer quantity) {
+        pendingDeltas.computeIfAbsent(partId, id -> new AtomicInteger()).addAndGet(quantity);
+    }
+
+    /**
+     * Handle for the quantities taken by one reserve() call
+     */
+    public class StockReservation {
+
+        private final Map<Long, Integer> taken;
+        private final Map<Long, Integer> returned;
+        private final AtomicInteger state = new AtomicInteger(0); // 0 open, 1 committed, 2 released
+
+        private StockReservation(Map<Long, Integer> taken, Map<Long, Integer> returned) {
+            this.taken = taken;
+            this.returned = returned;
+        }
+
+        private void commit() {
+            if (state.compareAndSet(0, 1)) {
+                taken.forEach((partId, quantity) -> {
+                    counter(partId).committed.addAndGet(-quantity);
+                    addPending(partId, quantity);
+                });
+                returned.forEach((partId, quantity) -> {
+                    PartStock counter = counter(partId);
+                    counter.committed.addAndGet(-quantity);
+                    counter.available.addAndGet(-quantity);
+                    addPending(partId, quantity);
+                });
+            }
+        }
+
+        private void release() {
+            if (state.compareAndSet(0, 2)) {
+                // Returned stock was never applied
+                taken.forEach(StockReservationLedger.this::giveBack);
+            }
+        }
+    }
+
+    /**
+     * Stock counters of one part.
+     * committed = DB stock - unflushed deltas;
+     * available = committed - in-flight reservations.
+     */
+    private static class PartStock {
+
+        private final AtomicInteger available;
+        private final AtomicInteger committed;
+
+        private PartStock(int quantity) {
+            this.available = new AtomicInteger(quantity);
+            this.committed = new AtomicInteger(quantity);
+        }
+    }
+
+    /**
+     * Thrown when a part does not have enough available stock
+     */
+    public static class InsufficientStockException extends RuntimeException {
+
+        private final Long partId;
+
+        public InsufficientStockException(Long partId) {
+            super("Insufficient stock for part: " + partId);
+            this.partId = partId;
+        }
+
+        public Long getPartId() {
+            return partId;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.vehicle.spareparts.entity.Role;
 import com.vehicle.spareparts.entity.User;
 import com.vehicle.spareparts.repository.RoleRepository;
 import com.vehicle.spareparts.repository.UserRepository;
+import com.vehicle.spareparts.security.AuthenticatedPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -22,6 +23,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private AuthenticatedPrincipalCache principalCache;
+    
     // Get all users
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -72,6 +76,7 @@ public class UserService {
     // Update user
     public User updateUser(Long id, User userDetails) {
         User existingUser = getUserById(id);
+        String oldUsername = existingUser.getUsername();
         
         // Check if new username is taken by another user
         if (!existingUser.getUsername().equals(userDetails.getUsername()) 
@@ -105,13 +110,17 @@ public class UserService {
             existingUser.setRole(role);
         }
         
-        return userRepository.save(existingUser);
+        User saved = userRepository.save(existingUser);
+        // Cached logins may carry the old role, status or username
+        principalCache.invalidateUser(oldUsername);
+        return saved;
     }
     
     // Delete user
     public void deleteUser(Long id) {
         User user = getUserById(id);
         userRepository.delete(user);
+        principalCache.invalidateUser(user.getUsername());
     }
     
     // Get users by role
@@ -133,13 +142,17 @@ public class UserService {
     public User deactivateUser(Long id) {
         User user = getUserById(id);
         user.setIsActive(false);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.invalidateUser(user.getUsername());
+        return saved;
     }
     
     // Activate user
     public User activateUser(Long id) {
         User user = getUserById(id);
         user.setIsActive(true);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.invalidateUser(user.getUsername());
+        return saved;
     }
 }
@@ -1,15 +1,18 @@
 package com.vehicle.spareparts.service;
 
+import com.vehicle.spareparts.dto.KeysetCursor;
+import com.vehicle.spareparts.dto.KeysetPage;
+import com.vehicle.spareparts.dto.WarrantyClaimSummary;
 import com.vehicle.spareparts.entity.*;
 import com.vehicle.spareparts.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +22,9 @@ public class WarrantyClaimService {
     private final OrderRepository orderRepository;
     private final SparePartRepository sparePartRepository;
     private final UserRepository userRepository;
+    private final BusinessNumberGenerator businessNumberGenerator;
+    
+    private static final int MAX_PAGE_SIZE = 200;
     
     // CREATE - Customer creates warranty claim
     @Transactional
@@ -46,7 +52,7 @@ public class WarrantyClaimService {
         
         // Create warranty claim
         WarrantyClaim claim = new WarrantyClaim();
-        claim.setClaimNumber("WC-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        claim.setClaimNumber(businessNumberGenerator.next("WC-"));
         claim.setCustomer(customer);
         claim.setProduct(product);
         claim.setOrder(order);
@@ -69,27 +75,53 @@ public class WarrantyClaimService {
         return warrantyClaimRepository.save(claim);
     }
     
-    // READ - Get all claims (for Store Owner/Admin)
-    public List<WarrantyClaim> getAllClaims() {
-        return warrantyClaimRepository.findAllByOrderByCreatedAtDesc();
+    // READ - Get all claims (for Store Owner/Admin), newest first, one page at a time
+    @Transactional(readOnly = true)
+    public KeysetPage<WarrantyClaimSummary> getAllClaims(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = pageSize(size);
+        return page(warrantyClaimRepository.findSummaries(after.timestamp(), after.id(), PageRequest.of(0, limit)), limit);
     }
     
     // READ - Get customer's claims
-    public List<WarrantyClaim> getCustomerClaims(Long customerId) {
-        User customer = userRepository.findById(customerId)
-            .orElseThrow(() -> new RuntimeException("Customer not found"));
-        return warrantyClaimRepository.findByCustomerOrderByCreatedAtDesc(customer);
+    @Transactional(readOnly = true)
+    public KeysetPage<WarrantyClaimSummary> getCustomerClaims(Long customerId, String cursor, int size) {
+        if (!userRepository.existsById(customerId)) {
+            throw new RuntimeException("Customer not found");
+        }
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = pageSize(size);
+        return page(warrantyClaimRepository.findSummariesByCustomer(customerId, after.timestamp(), after.id(),
+                PageRequest.of(0, limit)), limit);
     }
     
     // READ - Get single claim by ID
     public WarrantyClaim getClaimById(Long claimId) {
-        return warrantyClaimRepository.findById(claimId)
+        return warrantyClaimRepository.findWithDetailsById(claimId)
             .orElseThrow(() -> new RuntimeException("Warranty claim not found"));
     }
     
     // READ - Get claims by status
-    public List<WarrantyClaim> getClaimsByStatus(WarrantyClaim.WarrantyClaimStatus status) {
-        return warrantyClaimRepository.findByStatus(status);
+    @Transactional(readOnly = true)
+    public KeysetPage<WarrantyClaimSummary> getClaimsByStatus(WarrantyClaim.WarrantyClaimStatus status,
+                                                              String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int limit = pageSize(size);
+        return page(warrantyClaimRepository.findSummariesByStatus(status, after.timestamp(), after.id(),
+                PageRequest.of(0, limit)), limit);
+    }
+    
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+    
+    private static KeysetPage<WarrantyClaimSummary> page(List<WarrantyClaimSummary> claims, int limit) {
+        String nextCursor = null;
+        if (claims.size() == limit) {
+            WarrantyClaimSummary last = claims.get(claims.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).toString();
+        }
+        return new KeysetPage<>(claims, nextCursor);
     }
     
     // UPDATE - Customer updates claim (only if PENDING)
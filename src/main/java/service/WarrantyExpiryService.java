@@ -0,0 +1,299 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.dto.WarrantyExpiry;
+import com.vehicle.spareparts.entity.Warranty;
+import com.vehicle.spareparts.observer.WarrantySubject;
+import com.vehicle.spareparts.repository.WarrantyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Warranty Expiry Service
+ * Keeps an in-memory timing wheel of ACTIVE warranties bucketed by expiry
+ * day, so "expiring in N days" is a range read over a few buckets instead
+ * of a table scan.
+ *
+ * A nightly sweep moves warranties past their expiry date from ACTIVE to
+ * EXPIRED in chunked bulk UPDATEs, one short transaction per chunk, and
+ * raises WARRANTY_EXPIRED for each chunk and WARRANTY_EXPIRING_SOON for the
+ * bucket warranty.expiry.notice-days ahead as batch events.
+ *
+ * The database stays the source of truth: the sweep selects due rows from
+ * the table, and ids read from the wheel are re-checked when loaded, so a
+ * stale entry is dropped rather than acted on.
+ */
+@Component
+public class WarrantyExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarrantyExpiryService.class);
+
+    @Autowired
+    private WarrantyRepository warrantyRepository;
+
+    @Autowired
+    private WarrantySubject warrantySubject;
+
+    @Autowired
+    private WarrantyStatusCounters warrantyStatusCounters;
+
+    @Autowired
+    private WarrantyValidationIndex warrantyValidationIndex;
+
+    @Value("${warranty.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${warranty.expiry.notice-days:30}")
+    private int noticeDays;
+
+    // epoch day -> ids of ACTIVE warranties expiring that day
+    private final ConcurrentSkipListMap<Long, Set<Long>> wheel = new ConcurrentSkipListMap<>();
+    private final Map<Long, Long> dayById = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder expiringSoonNotified = new LongAdder();
+    private volatile LocalDate lastNoticeDay;
+    private volatile LocalDateTime lastSweepAt;
+
+    @Autowired
+    public WarrantyExpiryService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Load the wheel from the table, then expire anything missed while the
+     * application was down
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        long afterId = 0;
+        int loaded = 0;
+        List<WarrantyExpiry> page;
+        do {
+            page = warrantyRepository.findActiveExpiries(afterId, PageRequest.of(0, chunkSize));
+            for (WarrantyExpiry row : page) {
+                add(row.getId(), row.getExpiryDate());
+                afterId = row.getId();
+            }
+            loaded += page.size();
+        } while (page.size() == chunkSize);
+        ready = true;
+        logger.info("Warranty expiry index loaded: {} active warranties in {} day buckets", loaded, wheel.size());
+
+        expireDue();
+    }
+
+    /**
+     * Nightly: expire past-due warranties and send expiring-soon reminders
+     */
+    @Scheduled(cron = "${warranty.expiry.sweep-cron:0 5 0 * * *}")
+    public void sweep() {
+        expireDue();
+        notifyExpiringSoon();
+    }
+
+    /**
+     * Start tracking a warranty once the current transaction commits
+     */
+    public void track(Warranty warranty) {
+        Long id = warranty.getId();
+        LocalDate expiryDate = warranty.getExpiryDate();
+        boolean active = "ACTIVE".equals(warranty.getStatus());
+        afterCommit(() -> {
+            remove(id);
+            if (active) {
+                add(id, expiryDate);
+            }
+        });
+    }
+
+    /**
+     * Stop tracking a warranty once the current transaction commits
+     */
+    public void untrack(Long warrantyId) {
+        afterCommit(() -> remove(warrantyId));
+    }
+
+    /**
+     * ACTIVE warranties expiring after today and before today + days,
+     * ordered by expiry date, with customer and spare part loaded
+     */
+    public List<Warranty> findExpiring(int days) {
+        LocalDate today = LocalDate.now();
+        LocalDate before = today.plusDays(days);
+        if (!ready) {
+            return warrantyRepository.findActiveExpiringBetween(today, before);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (Set<Long> bucket : wheel.subMap(today.toEpochDay(), false, before.toEpochDay(), false).values()) {
+            ids.addAll(bucket);
+        }
+        List<Warranty> warranties = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            for (Warranty warranty : warrantyRepository.findWithDetailsByIdIn(chunk)) {
+                if (isTracked(warranty)) {
+                    warranties.add(warranty);
+                }
+            }
+        }
+        return warranties;
+    }
+
+    /**
+     * Index size and sweep counters
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("indexReady", ready);
+        stats.put("indexedWarranties", dayById.size());
+        stats.put("dayBuckets", wheel.size());
+        stats.put("nextExpiryDay", wheel.isEmpty() ? null : LocalDate.ofEpochDay(wheel.firstKey()));
+        stats.put("expired", expired.sum());
+        stats.put("expiringSoonNotified", expiringSoonNotified.sum());
+        stats.put("lastSweepAt", lastSweepAt);
+        return stats;
+    }
+
+    /**
+     * Expire ACTIVE warranties whose expiry date has passed, chunk by chunk
+     */
+    void expireDue() {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        List<Long> chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                // Expired rows drop out of the query, so the first page is always the next chunk
+                List<Long> ids = warrantyRepository.findExpiredIds(today, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    return ids;
+                }
+                int updated = warrantyRepository.expireByIds(ids, LocalDateTime.now());
+                warrantyStatusCounters.recordStatusChange("ACTIVE", "EXPIRED", updated);
+
+                List<Warranty> changed = new ArrayList<>(warrantyRepository.findWithDetailsByIdIn(ids));
+                changed.removeIf(w -> !"EXPIRED".equals(w.getStatus()));
+                changed.forEach(warrantyValidationIndex::track);
+                warrantySubject.notifyObservers(changed, "WARRANTY_EXPIRED");
+                return ids;
+            });
+            chunk.forEach(this::remove);
+            total += chunk.size();
+        } while (chunk.size() == chunkSize);
+
+        expired.add(total);
+        lastSweepAt = LocalDateTime.now();
+        if (total > 0) {
+            logger.info("Expired {} warranties", total);
+        }
+    }
+
+    /**
+     * Remind owners of warranties expiring exactly notice-days from today;
+     * runs at most once per day
+     */
+    void notifyExpiringSoon() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(lastNoticeDay)) {
+            return;
+        }
+        LocalDate day = today.plusDays(noticeDays);
+
+        List<Long> ids;
+        if (ready) {
+            Set<Long> bucket = wheel.get(day.toEpochDay());
+            ids = bucket == null ? List.of() : new ArrayList<>(bucket);
+        } else {
+            ids = new ArrayList<>();
+            for (Warranty warranty : warrantyRepository.findActiveExpiringBetween(day.minusDays(1), day.plusDays(1))) {
+                ids.add(warranty.getId());
+            }
+        }
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            Collection<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Warranty> due = new ArrayList<>(warrantyRepository.findWithDetailsByIdIn(chunk));
+                due.removeIf(w -> !isTracked(w) || !day.equals(w.getExpiryDate()));
+                warrantySubject.notifyObservers(due, "WARRANTY_EXPIRING_SOON");
+                expiringSoonNotified.add(due.size());
+            });
+        }
+        lastNoticeDay = today;
+    }
+
+    private boolean isTracked(Warranty warranty) {
+        if ("ACTIVE".equals(warranty.getStatus())) {
+            return true;
+        }
+        remove(warranty.getId()); // stale entry, status changed elsewhere
+        return false;
+    }
+
+    private void add(Long id, LocalDate expiryDate) {
+        long day = expiryDate.toEpochDay();
+        Long previous = dayById.put(id, day);
+        if (previous != null && previous != day) {
+            removeFromBucket(previous, id);
+        }
+        wheel.compute(day, (d, bucket) -> {
+            Set<Long> ids = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private void remove(Long id) {
+        Long day = dayById.remove(id);
+        if (day != null) {
+            removeFromBucket(day, id);
+        }
+    }
+
+    private void removeFromBucket(long day, Long id) {
+        wheel.computeIfPresent(day, (d, bucket) -> {
+            bucket.remove(id);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.vehicle.spareparts.service;
 
 import com.vehicle.spareparts.dto.WarrantyResponse;
+import com.vehicle.spareparts.dto.WarrantyValidationResult;
+import com.vehicle.spareparts.entity.Order;
+import com.vehicle.spareparts.entity.OrderItem;
 import com.vehicle.spareparts.entity.User;
 import com.vehicle.spareparts.entity.Warranty;
 import com.vehicle.spareparts.repository.UserRepository;
@@ -12,9 +15,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +32,18 @@ public class WarrantyService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private BusinessNumberGenerator businessNumberGenerator;
+    
+    @Autowired
+    private WarrantyExpiryService warrantyExpiryService;
+    
+    @Autowired
+    private WarrantyStatusCounters warrantyStatusCounters;
+    
+    @Autowired
+    private WarrantyValidationIndex warrantyValidationIndex;
+    
     // OBSERVER PATTERN - Warranty Notifications
     @Autowired
     private WarrantySubject warrantySubject;
@@ -64,9 +82,8 @@ public class WarrantyService {
     }
     
     public List<WarrantyResponse> getPendingClaims() {
-        List<Warranty> warranties = warrantyRepository.findAll();
+        List<Warranty> warranties = warrantyRepository.findByClaimStatus("PENDING");
         return warranties.stream()
-                .filter(w -> "PENDING".equals(w.getClaimStatus()))
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
@@ -102,6 +119,7 @@ public class WarrantyService {
         warranty.setClaimNotes(request.getNotes());
         
         Warranty saved = warrantyRepository.save(warranty);
+        warrantyStatusCounters.recordChange(saved.getStatus(), null, saved.getStatus(), "PENDING");
 
         // OBSERVER PATTERN - Notify observers about warranty claim
         warrantySubject.notifyObservers(saved, "WARRANTY_CLAIM_FILED");
@@ -118,11 +136,15 @@ public class WarrantyService {
             throw new RuntimeException("Only pending claims can be approved");
         }
         
+        String oldStatus = warranty.getStatus();
         warranty.setClaimStatus("APPROVED");
         warranty.setStatus("CLAIMED");
         warranty.setUpdatedAt(LocalDateTime.now());
 
         Warranty saved = warrantyRepository.save(warranty);
+        warrantyStatusCounters.recordChange(oldStatus, "PENDING", "CLAIMED", "APPROVED");
+        warrantyExpiryService.untrack(saved.getId());
+        warrantyValidationIndex.track(saved);
 
         System.out.println("✅ WARRANTY CLAIM APPROVED");
         System.out.println("Warranty: " + warranty.getWarrantyNumber());
@@ -149,6 +171,7 @@ public class WarrantyService {
         warranty.setUpdatedAt(LocalDateTime.now());
 
         Warranty saved = warrantyRepository.save(warranty);
+        warrantyStatusCounters.recordChange(saved.getStatus(), "PENDING", saved.getStatus(), "REJECTED");
 
         System.out.println("❌ WARRANTY CLAIM REJECTED");
         System.out.println("Warranty: " + warranty.getWarrantyNumber());
@@ -161,30 +184,19 @@ public class WarrantyService {
     }
     
     public Map<String, Object> getWarrantyStatistics() {
-        List<Warranty> allWarranties = warrantyRepository.findAll();
+        // Maintained counters; see WarrantyStatusCounters
+        Map<String, Long> counters = warrantyStatusCounters.snapshot();
 
         Map<String, Object> stats = new HashMap<>();
         
-        long totalWarranties = allWarranties.size();
-        long activeWarranties = allWarranties.stream()
-                .filter(w -> "ACTIVE".equals(w.getStatus()))
-                .count();
-        long expiredWarranties = allWarranties.stream()
-                .filter(w -> "EXPIRED".equals(w.getStatus()))
-                .count();
-        long claimedWarranties = allWarranties.stream()
-                .filter(w -> "CLAIMED".equals(w.getStatus()))
-                .count();
+        long totalWarranties = counters.getOrDefault(WarrantyStatusCounters.TOTAL, 0L);
+        long activeWarranties = counters.getOrDefault(WarrantyStatusCounters.statusKey("ACTIVE"), 0L);
+        long expiredWarranties = counters.getOrDefault(WarrantyStatusCounters.statusKey("EXPIRED"), 0L);
+        long claimedWarranties = counters.getOrDefault(WarrantyStatusCounters.statusKey("CLAIMED"), 0L);
         
-        long pendingClaims = allWarranties.stream()
-                .filter(w -> "PENDING".equals(w.getClaimStatus()))
-                .count();
-        long approvedClaims = allWarranties.stream()
-                .filter(w -> "APPROVED".equals(w.getClaimStatus()))
-                .count();
-        long rejectedClaims = allWarranties.stream()
-                .filter(w -> "REJECTED".equals(w.getClaimStatus()))
-                .count();
+        long pendingClaims = counters.getOrDefault(WarrantyStatusCounters.claimKey("PENDING"), 0L);
+        long approvedClaims = counters.getOrDefault(WarrantyStatusCounters.claimKey("APPROVED"), 0L);
+        long rejectedClaims = counters.getOrDefault(WarrantyStatusCounters.claimKey("REJECTED"), 0L);
         
         stats.put("totalWarranties", totalWarranties);
         stats.put("activeWarranties", activeWarranties);
@@ -204,6 +216,21 @@ public class WarrantyService {
         return stats;
     }
     
+    public Map<String, Object> reconcileStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        Map<String, Object> drift = warrantyStatusCounters.reconcile();
+        result.put("consistent", drift.isEmpty());
+        result.put("drift", drift);
+        return result;
+    }
+    
+    /**
+     * Validate many warranty numbers at once from the in-memory index
+     */
+    public List<WarrantyValidationResult> validateWarranties(List<String> warrantyNumbers) {
+        return warrantyValidationIndex.validate(warrantyNumbers);
+    }
+    
     public boolean isWarrantyValid(Long warrantyId) {
         Warranty warranty = warrantyRepository.findById(warrantyId)
                 .orElseThrow(() -> new RuntimeException("Warranty not found"));
@@ -213,13 +240,8 @@ public class WarrantyService {
     }
 
     public List<WarrantyResponse> getExpiringWarranties(int days) {
-        LocalDate futureDate = LocalDate.now().plusDays(days);
-        List<Warranty> warranties = warrantyRepository.findAll();
-
-        return warranties.stream()
-                .filter(w -> "ACTIVE".equals(w.getStatus()))
-                .filter(w -> w.getExpiryDate().isAfter(LocalDate.now()) &&
-                            w.getExpiryDate().isBefore(futureDate))
+        // Answered from the expiry index instead of scanning every warranty
+        return warrantyExpiryService.findExpiring(days).stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
@@ -254,6 +276,62 @@ public class WarrantyService {
         return response;
     }
     
+    /**
+     * Issue warranties for every item of a delivered order that carries
+     * warranty months, as one batched insert and one WARRANTIES_CREATED event.
+     * Items that already have a warranty are skipped, so repeated DELIVERED
+     * transitions never issue twice; the unique key on order_item_id rejects
+     * a concurrent duplicate.
+     */
+    @Transactional
+    public List<Warranty> issueWarrantiesForOrder(Order order) {
+        List<OrderItem> eligible = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            if (item.getWarrantyMonths() != null && item.getWarrantyMonths() > 0) {
+                eligible.add(item);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> itemIds = new HashSet<>();
+        eligible.forEach(item -> itemIds.add(item.getId()));
+        Set<Long> issued = new HashSet<>(warrantyRepository.findIssuedOrderItemIds(itemIds));
+
+        LocalDate today = LocalDate.now();
+        List<Warranty> warranties = new ArrayList<>(eligible.size());
+        for (OrderItem item : eligible) {
+            if (issued.contains(item.getId())) {
+                continue;
+            }
+            Warranty warranty = new Warranty();
+            warranty.setWarrantyNumber(businessNumberGenerator.next("WRN"));
+            warranty.setOrderItem(item);
+            warranty.setCustomer(order.getCustomer());
+            warranty.setSparePart(item.getSparePart());
+            warranty.setPurchaseDate(today);
+            warranty.setExpiryDate(today.plusMonths(item.getWarrantyMonths()));
+            warranty.setStatus("ACTIVE");
+            warranties.add(warranty);
+        }
+        if (warranties.isEmpty()) {
+            return List.of();
+        }
+
+        List<Warranty> saved = warrantyRepository.saveAll(warranties);
+        warrantyStatusCounters.recordCreated("ACTIVE", null, saved.size());
+        saved.forEach(warrantyExpiryService::track);
+        saved.forEach(warrantyValidationIndex::track);
+
+        System.out.println("🛡️ " + saved.size() + " warranties issued for order " + order.getOrderNumber());
+
+        // OBSERVER PATTERN - One aggregated event per order
+        warrantySubject.notifyObservers(saved, "WARRANTIES_CREATED");
+
+        return saved;
+    }
+    
     // CREATE - Manual warranty creation
     @Transactional
     public WarrantyResponse createWarrantyManually(com.vehicle.spareparts.dto.WarrantyClaimRequest request) {
@@ -262,7 +340,7 @@ public class WarrantyService {
         // customerId, sparePartId, purchaseDate, warrantyPeriodMonths
         
         Warranty warranty = new Warranty();
-        warranty.setWarrantyNumber("WMN" + System.currentTimeMillis()); // Manual warranty number
+        warranty.setWarrantyNumber(businessNumberGenerator.next("WMN")); // Manual warranty number
         warranty.setPurchaseDate(LocalDate.now());
         warranty.setExpiryDate(LocalDate.now().plusMonths(12)); // Default 12 months
         warranty.setStatus("ACTIVE");
@@ -272,6 +350,9 @@ public class WarrantyService {
         // This is a placeholder - implement based on your WarrantyClaimRequest structure
         
         Warranty savedWarranty = warrantyRepository.save(warranty);
+        warrantyStatusCounters.recordCreated(savedWarranty.getStatus(), null, 1);
+        warrantyExpiryService.track(savedWarranty);
+        warrantyValidationIndex.track(savedWarranty);
         return convertToResponse(savedWarranty);
     }
     
@@ -305,5 +386,8 @@ public class WarrantyService {
         }
         
         warrantyRepository.delete(warranty);
+        warrantyStatusCounters.recordDeleted(warranty.getStatus(), warranty.getClaimStatus());
+        warrantyExpiryService.untrack(id);
+        warrantyValidationIndex.untrack(warranty.getWarrantyNumber());
     }
 }
@@ -0,0 +1,255 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.dto.StatusCount;
+import com.vehicle.spareparts.entity.WarrantyStatusCounter;
+import com.vehicle.spareparts.repository.WarrantyRepository;
+import com.vehicle.spareparts.repository.WarrantyStatusCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Warranty Status Counters
+ * Keeps warranty_status_counters in step with the warranties table so
+ * statistics are a read of a handful of rows instead of a full scan.
+ *
+ * Changes are collected per transaction and written as one upsert per key
+ * just before commit, so the counter rows are locked only briefly and roll
+ * back together with the warranty change. reconcile() compares the rows
+ * with grouped COUNT queries and rebuilds them when they have drifted.
+ */
+@Component
+public class WarrantyStatusCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarrantyStatusCounters.class);
+
+    public static final String TOTAL = "TOTAL";
+    private static final String STATUS_PREFIX = "STATUS:";
+    private static final String CLAIM_PREFIX = "CLAIM:";
+
+    @Autowired
+    private WarrantyStatusCounterRepository counterRepository;
+
+    @Autowired
+    private WarrantyRepository warrantyRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public WarrantyStatusCounters(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static String statusKey(String status) {
+        return STATUS_PREFIX + status;
+    }
+
+    public static String claimKey(String claimStatus) {
+        return CLAIM_PREFIX + claimStatus;
+    }
+
+    /**
+     * Count new warranties
+     */
+    public void recordCreated(String status, String claimStatus, int count) {
+        Map<String, Long> deltas = pendingDeltas();
+        deltas.merge(TOTAL, (long) count, Long::sum);
+        deltas.merge(statusKey(status), (long) count, Long::sum);
+        if (claimStatus != null) {
+            deltas.merge(claimKey(claimStatus), (long) count, Long::sum);
+        }
+    }
+
+    /**
+     * Move one warranty between statuses and/or claim statuses
+     */
+    public void recordChange(String oldStatus, String oldClaimStatus, String newStatus, String newClaimStatus) {
+        Map<String, Long> deltas = pendingDeltas();
+        move(deltas, statusKey(oldStatus), statusKey(newStatus), 1);
+        if (oldClaimStatus != null) {
+            deltas.merge(claimKey(oldClaimStatus), -1L, Long::sum);
+        }
+        if (newClaimStatus != null) {
+            deltas.merge(claimKey(newClaimStatus), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Move many warranties from one status to another, e.g. a bulk expiry
+     */
+    public void recordStatusChange(String oldStatus, String newStatus, int count) {
+        move(pendingDeltas(), statusKey(oldStatus), statusKey(newStatus), count);
+    }
+
+    /**
+     * Uncount a deleted warranty
+     */
+    public void recordDeleted(String status, String claimStatus) {
+        Map<String, Long> deltas = pendingDeltas();
+        deltas.merge(TOTAL, -1L, Long::sum);
+        deltas.merge(statusKey(status), -1L, Long::sum);
+        if (claimStatus != null) {
+            deltas.merge(claimKey(claimStatus), -1L, Long::sum);
+        }
+    }
+
+    /**
+     * Current counters by key; missing keys are zero
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> counters = new HashMap<>();
+        for (WarrantyStatusCounter counter : counterRepository.findAll()) {
+            counters.put(counter.getCounterKey(), counter.getTotal());
+        }
+        return counters;
+    }
+
+    /**
+     * Build the counters on first start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (counterRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Compare the counters with grouped counts and rebuild them on drift.
+     * Returns the keys that differed with their stored and actual values.
+     */
+    @Scheduled(cron = "${warranty.counters.reconcile-cron:0 15 4 * * *}")
+    public Map<String, Object> reconcile() {
+        return transactionTemplate.execute(status -> {
+            // Locking the rows first holds back writers until the rebuild commits
+            Map<String, Long> stored = new HashMap<>();
+            for (WarrantyStatusCounter counter : counterRepository.findAllForUpdate()) {
+                stored.put(counter.getCounterKey(), counter.getTotal());
+            }
+            Map<String, Long> actual = countFromWarranties();
+
+            Map<String, Object> drift = new TreeMap<>();
+            for (String key : union(stored, actual)) {
+                long storedValue = stored.getOrDefault(key, 0L);
+                long actualValue = actual.getOrDefault(key, 0L);
+                if (storedValue != actualValue) {
+                    Map<String, Long> values = new LinkedHashMap<>();
+                    values.put("stored", storedValue);
+                    values.put("actual", actualValue);
+                    drift.put(key, values);
+                }
+            }
+
+            if (!drift.isEmpty()) {
+                logger.warn("Warranty counters drifted, rebuilding: {}", drift);
+                write(actual);
+            }
+            return drift;
+        });
+    }
+
+    /**
+     * Replace all counters with grouped counts from the warranties table
+     */
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            counterRepository.findAllForUpdate();
+            write(countFromWarranties());
+        });
+        logger.info("Warranty counters rebuilt");
+    }
+
+    private Map<String, Long> countFromWarranties() {
+        Map<String, Long> counts = new HashMap<>();
+        long total = 0;
+        for (StatusCount row : warrantyRepository.countGroupedByStatus()) {
+            counts.put(statusKey(row.getStatus()), row.getTotal());
+            total += row.getTotal();
+        }
+        for (StatusCount row : warrantyRepository.countGroupedByClaimStatus()) {
+            counts.put(claimKey(row.getStatus()), row.getTotal());
+        }
+        counts.put(TOTAL, total);
+        return counts;
+    }
+
+    private void write(Map<String, Long> counts) {
+        counterRepository.deleteAllInBatch();
+        counts.forEach((key, total) -> counterRepository.save(new WarrantyStatusCounter(key, total)));
+    }
+
+    private static Set<String> union(Map<String, Long> a, Map<String, Long> b) {
+        Set<String> keys = new HashSet<>(a.keySet());
+        keys.addAll(b.keySet());
+        return keys;
+    }
+
+    private static void move(Map<String, Long> deltas, String from, String to, long count) {
+        if (from.equals(to)) {
+            return;
+        }
+        deltas.merge(from, -count, Long::sum);
+        deltas.merge(to, count, Long::sum);
+    }
+
+    /**
+     * Deltas of the current transaction, flushed before it commits.
+     * The map is bound as a transaction resource and unbound while the
+     * transaction is suspended, so a REQUIRES_NEW transaction on the same
+     * thread collects and commits its own deltas.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> pendingDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Warranty counter changes require an active transaction");
+        }
+        Map<String, Long> deltas = (Map<String, Long>) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            // Sorted so concurrent transactions lock counter rows in the same order
+            Map<String, Long> created = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    created.forEach((key, delta) -> {
+                        if (delta != 0) {
+                            counterRepository.increment(key, delta);
+                        }
+                    });
+                }
+
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(WarrantyStatusCounters.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(WarrantyStatusCounters.this, created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WarrantyStatusCounters.this);
+                }
+            });
+            deltas = created;
+        }
+        return deltas;
+    }
+}
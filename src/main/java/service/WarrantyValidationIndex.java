@@ -0,0 +1,331 @@
+package com.vehicle.spareparts.service;
+
+import com.vehicle.spareparts.cache.BloomFilter;
+import com.vehicle.spareparts.dto.WarrantyValidationResult;
+import com.vehicle.spareparts.dto.WarrantyValidity;
+import com.vehicle.spareparts.entity.Warranty;
+import com.vehicle.spareparts.repository.WarrantyRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Warranty Validation Index
+ * Answers "is this warranty number valid" for large batches from memory.
+ *
+ * Generated numbers (WRN/WMN) are keyed by the id encoded in them and stored
+ * as sorted long[] keys with int[] values packing expiry epoch day, prefix
+ * and a status code, so a million warranties take about 12 MB. The check
+ * digit only covers the id, so the stored prefix is compared on lookup. Changes since the
+ * last compaction sit in a small overlay map that is checked first and
+ * merged into the arrays periodically. Numbers in any other format are kept
+ * in a plain map. A Bloom filter in front rejects unknown numbers before
+ * either structure is searched.
+ *
+ * Writes are applied after their transaction commits. Until the index has
+ * loaded, lookups go to the database.
+ */
+@Component
+public class WarrantyValidationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarrantyValidationIndex.class);
+
+    private static final List<String> GENERATED_PREFIXES = List.of("WRN", "WMN");
+    private static final int STATUS_BITS = 8;
+    private static final int PREFIX_BITS = 2;
+    private static final int REMOVED = -1;
+
+    @Autowired
+    private WarrantyRepository warrantyRepository;
+
+    @Value("${warranty.validation.expected-size:1000000}")
+    private long expectedSize;
+
+    @Value("${warranty.validation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${warranty.validation.load-chunk-size:5000}")
+    private int loadChunkSize;
+
+    private final List<String> statuses = new CopyOnWriteArrayList<>();
+
+    private volatile SortedEntries sorted = new SortedEntries(new long[0], new int[0]);
+    private final Map<Long, Integer> recent = new ConcurrentHashMap<>();
+    private final Map<String, Integer> legacy = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void createFilter() {
+        filter = new BloomFilter(expectedSize, falsePositiveRate);
+    }
+
+    /**
+     * Load every warranty into the index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Map<Long, Integer> loaded = new HashMap<>();
+        long afterId = 0;
+        List<WarrantyValidity> page;
+        do {
+            page = warrantyRepository.findValidities(afterId, PageRequest.of(0, loadChunkSize));
+            for (WarrantyValidity row : page) {
+                long id = generatedId(row.getWarrantyNumber());
+                int value = pack(row.getWarrantyNumber(), row.getExpiryDate(), row.getStatus());
+                if (id >= 0) {
+                    loaded.put(id, value);
+                    filter.add(id);
+                } else {
+                    legacy.putIfAbsent(row.getWarrantyNumber(), value);
+                    filter.add(BloomFilter.hash(row.getWarrantyNumber()));
+                }
+                afterId = row.getId();
+            }
+        } while (page.size() == loadChunkSize);
+
+        synchronized (this) {
+            merge(loaded);
+        }
+        ready = true;
+        logger.info("Warranty validation index loaded: {} generated and {} other numbers",
+                sorted.keys().length, legacy.size());
+    }
+
+    /**
+     * Validate a batch of warranty numbers, answering in request order
+     */
+    public List<WarrantyValidationResult> validate(List<String> warrantyNumbers) {
+        LocalDate today = LocalDate.now();
+        List<WarrantyValidationResult> results = new ArrayList<>(warrantyNumbers.size());
+
+        if (!ready) {
+            Map<String, Integer> found = new HashMap<>();
+            for (WarrantyValidity row : warrantyRepository.findValiditiesByNumbers(warrantyNumbers)) {
+                found.put(row.getWarrantyNumber(), pack(row.getWarrantyNumber(), row.getExpiryDate(), row.getStatus()));
+            }
+            for (String number : warrantyNumbers) {
+                results.add(result(number, found.getOrDefault(number, REMOVED), today));
+            }
+            return results;
+        }
+
+        for (String number : warrantyNumbers) {
+            results.add(result(number, lookup(number), today));
+        }
+        return results;
+    }
+
+    /**
+     * Record a created or changed warranty once the current transaction commits
+     */
+    public void track(Warranty warranty) {
+        String number = warranty.getWarrantyNumber();
+        int value = pack(number, warranty.getExpiryDate(), warranty.getStatus());
+        afterCommit(() -> put(number, value));
+    }
+
+    /**
+     * Forget a deleted warranty once the current transaction commits
+     */
+    public void untrack(String warrantyNumber) {
+        afterCommit(() -> put(warrantyNumber, REMOVED));
+    }
+
+    /**
+     * Fold recent changes into the sorted arrays, growing the Bloom filter
+     * when it holds more keys than it was sized for
+     */
+    @Scheduled(fixedDelayString = "${warranty.validation.compact-interval-ms:60000}")
+    public synchronized void compact() {
+        if (!ready || recent.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> changes = new HashMap<>(recent);
+        merge(changes);
+        // Keep entries that changed again while merging
+        changes.forEach((key, value) -> recent.remove(key, value));
+
+        long[] keys = sorted.keys();
+        long size = keys.length + legacy.size();
+        if (size > filter.expectedInsertions()) {
+            BloomFilter grown = new BloomFilter(size * 2, falsePositiveRate);
+            for (long key : keys) {
+                grown.add(key);
+            }
+            filter = grown;
+            // Re-add anything written while the new filter was filled
+            recent.keySet().forEach(grown::add);
+            legacy.keySet().forEach(number -> grown.add(BloomFilter.hash(number)));
+            logger.info("Warranty validation filter grown to {} bits", grown.bitCount());
+        }
+    }
+
+    private int lookup(String number) {
+        if (number == null) {
+            return REMOVED;
+        }
+        long id = generatedId(number);
+        if (!filter.mightContain(id >= 0 ? id : BloomFilter.hash(number))) {
+            return REMOVED;
+        }
+        if (id < 0) {
+            return legacy.getOrDefault(number, REMOVED);
+        }
+        Integer changed = recent.get(id);
+        int value;
+        if (changed != null) {
+            value = changed;
+        } else {
+            SortedEntries entries = sorted;
+            int index = Arrays.binarySearch(entries.keys(), id);
+            value = index >= 0 ? entries.values()[index] : REMOVED;
+        }
+        // Same id under the other prefix is a different, unknown number
+        return value != REMOVED && prefixCode(value) == prefixCode(number) ? value : REMOVED;
+    }
+
+    private void put(String number, int value) {
+        long id = generatedId(number);
+        if (id < 0) {
+            if (value == REMOVED) {
+                legacy.remove(number);
+            } else {
+                legacy.put(number, value);
+            }
+            filter.add(BloomFilter.hash(number));
+        } else {
+            recent.put(id, value);
+            filter.add(id);
+        }
+    }
+
+    /**
+     * Replace the sorted arrays with their merge with the given changes;
+     * REMOVED values drop the key
+     */
+    private void merge(Map<Long, Integer> changes) {
+        long[] changedKeys = changes.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        long[] oldKeys = sorted.keys();
+        int[] oldValues = sorted.values();
+
+        long[] mergedKeys = new long[oldKeys.length + changedKeys.length];
+        int[] mergedValues = new int[mergedKeys.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < oldKeys.length || j < changedKeys.length) {
+            long key;
+            int value;
+            if (j == changedKeys.length || (i < oldKeys.length && oldKeys[i] < changedKeys[j])) {
+                key = oldKeys[i];
+                value = oldValues[i++];
+            } else {
+                if (i < oldKeys.length && oldKeys[i] == changedKeys[j]) {
+                    i++; // replaced by the change
+                }
+                key = changedKeys[j++];
+                value = changes.get(key);
+            }
+            if (value != REMOVED) {
+                mergedKeys[n] = key;
+                mergedValues[n++] = value;
+            }
+        }
+
+        sorted = new SortedEntries(Arrays.copyOf(mergedKeys, n), Arrays.copyOf(mergedValues, n));
+    }
+
+    private WarrantyValidationResult result(String number, int value, LocalDate today) {
+        if (value == REMOVED) {
+            return new WarrantyValidationResult(number, false, null, null, "NOT_FOUND");
+        }
+        LocalDate expiryDate = LocalDate.ofEpochDay(value >>> (PREFIX_BITS + STATUS_BITS));
+        String status = statuses.get(value & ((1 << STATUS_BITS) - 1));
+        if (!"ACTIVE".equals(status)) {
+            return new WarrantyValidationResult(number, false, status, expiryDate, "NOT_ACTIVE");
+        }
+        if (!expiryDate.isAfter(today)) {
+            return new WarrantyValidationResult(number, false, status, expiryDate, "EXPIRED");
+        }
+        return new WarrantyValidationResult(number, true, status, expiryDate, null);
+    }
+
+    private int pack(String number, LocalDate expiryDate, String status) {
+        return (int) (expiryDate.toEpochDay() << (PREFIX_BITS + STATUS_BITS))
+                | prefixCode(number) << STATUS_BITS
+                | statusCode(status);
+    }
+
+    /**
+     * Index of a generated number's prefix, 0 for other numbers
+     */
+    private static int prefixCode(String number) {
+        return generatedId(number) >= 0 ? GENERATED_PREFIXES.indexOf(BusinessNumberGenerator.prefixOf(number)) : 0;
+    }
+
+    private static int prefixCode(int value) {
+        return (value >>> STATUS_BITS) & ((1 << PREFIX_BITS) - 1);
+    }
+
+    private int statusCode(String status) {
+        String name = status != null ? status : "UNKNOWN";
+        int code = statuses.indexOf(name);
+        if (code < 0) {
+            synchronized (statuses) {
+                code = statuses.indexOf(name);
+                if (code < 0) {
+                    statuses.add(name);
+                    code = statuses.size() - 1;
+                }
+            }
+        }
+        return code;
+    }
+
+    private static long generatedId(String number) {
+        if (number == null) {
+            return -1;
+        }
+        long id = BusinessNumberGenerator.parseId(number);
+        return id >= 0 && GENERATED_PREFIXES.contains(BusinessNumberGenerator.prefixOf(number)) ? id : -1;
+    }
+
+    /**
+     * Sorted ids with their packed (expiry epoch day, prefix, status code) values,
+     * swapped as one unit so readers never see mismatched arrays
+     */
+    private record SortedEntries(long[] keys, int[] values) {
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
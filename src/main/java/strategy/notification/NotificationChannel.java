@@ -0,0 +1,22 @@
+package com.vehicle.spareparts.strategy.notification;
+
+/**
+ * Strategy Pattern - Notification Channel Interface
+ * Delivers one outbox message over a transport (email, SMS, ...)
+ */
+public interface NotificationChannel {
+
+    /**
+     * Send a message; throw to have the relay retry it later
+     * @param recipient Email address or phone number
+     * @param subject Subject line, may be null for channels without one
+     * @param body Message text
+     */
+    void send(String recipient, String subject, String body);
+
+    /**
+     * Get channel name
+     * @return Channel identifier matching OutboxMessage.channel
+     */
+    String getChannelName();
+}
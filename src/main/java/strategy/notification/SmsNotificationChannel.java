@@ -0,0 +1,38 @@
+package com.vehicle.spareparts.strategy.notification;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Concrete Strategy - SMS Channel
+ * Local SMS gateway stand-in: logs the message after a configurable delay
+ */
+@Component
+public class SmsNotificationChannel implements NotificationChannel {
+
+    @Value("${notification.stub.latency-ms:0}")
+    private long latencyMs;
+
+    @Override
+    public void send(String recipient, String subject, String body) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Send interrupted");
+            }
+        }
+
+        // In real implementation, integrate with SMS service (Twilio, AWS SNS, etc.)
+        System.out.println("📱 SMS NOTIFICATION");
+        System.out.println("To: " + recipient);
+        System.out.println("Message: " + body);
+        System.out.println("-----------------------------------");
+    }
+
+    @Override
+    public String getChannelName() {
+        return "SMS";
+    }
+}
@@ -1,6 +1,7 @@
 package com.vehicle.spareparts.strategy.payment;
 
 import com.vehicle.spareparts.entity.Order;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -9,17 +10,31 @@ import org.springframework.stereotype.Component;
 @Component
 public class CreditCardPayment implements PaymentStrategy {
 
+    @Autowired
+    private StubPaymentGateway paymentGateway;
+
     @Override
     public String processPayment(Order order) {
         // Simulate credit card payment processing
         System.out.println("Processing Credit Card Payment for Order: " + order.getOrderNumber());
         System.out.println("Amount: $" + order.getTotalAmount());
 
-        // In real implementation, integrate with payment gateway
+        String transactionId = paymentGateway.charge(PaymentStrategy.idempotencyKey(order),
+                order.getOrderNumber(), order.getTotalAmount());
         order.setPaymentStatus("PAID");
 
         return "Credit Card payment processed successfully for order " + order.getOrderNumber() +
-               ". Amount: $" + order.getTotalAmount();
+               ". Amount: $" + order.getTotalAmount() + ". Transaction: " + transactionId;
+    }
+
+    @Override
+    public String findPayment(Order order) {
+        String transactionId = paymentGateway.findCharge(PaymentStrategy.idempotencyKey(order));
+        if (transactionId == null) {
+            return null;
+        }
+        order.setPaymentStatus("PAID");
+        return "Credit Card payment found for order " + order.getOrderNumber() + ". Transaction: " + transactionId;
     }
 
     @Override
@@ -15,6 +15,24 @@ public interface PaymentStrategy {
      */
     String processPayment(Order order);
 
+    /**
+     * Look up an earlier charge for the order, e.g. after an attempt timed
+     * out while its request may still have reached the gateway
+     * @param order The order to look up
+     * @return Payment confirmation message if the order was charged, null if it was not
+     */
+    default String findPayment(Order order) {
+        return null;
+    }
+
+    /**
+     * Idempotency key sent with every charge attempt for an order, so the
+     * gateway charges it at most once
+     */
+    static String idempotencyKey(Order order) {
+        return "PAY-" + order.getOrderNumber();
+    }
+
     /**
      * Validate payment details
      * @param order The order to validate
@@ -0,0 +1,59 @@
+package com.vehicle.spareparts.strategy.payment;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for a card payment gateway.
+ * Latency and failure rate are configurable so the payment pipeline can be
+ * exercised against a slow or flaky gateway. Like a real gateway it
+ * remembers idempotency keys: repeating a charge with the same key returns
+ * the first transaction instead of charging again.
+ */
+@Component
+public class StubPaymentGateway {
+
+    @Value("${payment.gateway.stub-latency-ms:0}")
+    private long latencyMs;
+
+    @Value("${payment.gateway.stub-failure-rate:0.0}")
+    private double failureRate;
+
+    private final Map<String, String> charges = new ConcurrentHashMap<>();
+
+    /**
+     * Charge an amount once per idempotency key, returning a transaction reference
+     */
+    public String charge(String idempotencyKey, String orderNumber, BigDecimal amount) {
+        String existing = charges.get(idempotencyKey);
+        if (existing != null) {
+            return existing;
+        }
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Payment gateway call interrupted");
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("Payment gateway declined order " + orderNumber);
+        }
+        String transactionId = "TXN-" + orderNumber;
+        existing = charges.putIfAbsent(idempotencyKey, transactionId);
+        return existing != null ? existing : transactionId;
+    }
+
+    /**
+     * Transaction reference of the charge made with a key, or null if none was made
+     */
+    public String findCharge(String idempotencyKey) {
+        return charges.get(idempotencyKey);
+    }
+}